@@ -1,26 +1,33 @@
 package checkersBoard;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 
+import checkersMain.BoardCache;
 import checkersMain.CheckersBoard;
 
 /**
  * This is a bit implementation of a {@link CheckersBoard}. It implements
  * caching of plies and successor boards, and it stores each board location as 3
  * bits. Its time efficiency is less than the {@link DefaultCheckersBoard}, but
- * its storage method saves a considerable amount of space. It uses
- * {@link SoftReference}s for the plies and successor boards to prevent
- * {@link OutOfMemoryError}s.
+ * its storage method saves a considerable amount of space. The successor and
+ * inverted board caches are bounded by the {@link BoardCache}.
  * 
  * @author Amos Yuen
  * @version 1.02 - 7 August 2008
  */
 public class BitCheckersBoard extends CheckersBoard {
 
+	/**
+	 * The board at the start of a checkers game. It is set while the class
+	 * is initialised, so threads never see a partially written start board.
+	 */
 	protected static long initBoard1;
 	protected static int initBoard2;
 
+	static {
+		new BitCheckersBoard();
+	}
+
 	/**
 	 * The first part of the board. The board is stored in a long and a short
 	 * (96 bits) and uses 3 bits to store each board location.
@@ -33,26 +40,38 @@ public class BitCheckersBoard extends CheckersBoard {
 	protected int board2;
 
 	/**
-	 * A cache of the array of possible plies.
+	 * The material summary of the board, kept up to date with the board.
+	 * 
+	 * @see CheckersBoard#getMaterial()
+	 */
+	protected int material;
+
+	/**
+	 * A cache of the array of possible plies. The array is filled in before
+	 * it is published, so readers on other threads see every ply.
 	 */
-	protected Ply[] plies;
+	protected volatile Ply[] plies;
 
 	/**
-	 * A cache of the inverted board. It uses a soft reference to help prevent
-	 * an {@link OutOfMemoryError}
+	 * A cache of the inverted board. It is bounded by the {@link BoardCache}.
 	 * 
-	 * @see SoftReference
+	 * @see BoardCache
 	 */
-	protected SoftReference<BitCheckersBoard> invertedBoard;
+	protected volatile BitCheckersBoard invertedBoard;
 	/**
-	 * A cache of the successor boards. It uses a soft reference to help prevent
-	 * an {@link OutOfMemoryError}
+	 * A cache of the successor boards. It is bounded by the {@link BoardCache}.
+	 * A published array is never written to; a new successor is added by
+	 * publishing a copy of the array, so readers never see a successor board
+	 * that is still being created.
 	 * 
-	 * @see SoftReference
+	 * @see BoardCache
 	 */
-	protected SoftReference<BitCheckersBoard[]> successorBoards;
+	protected volatile BitCheckersBoard[] successorBoards;
 
-	protected boolean jumpsOnly; // Convenience variable used for forcing jumps
+	// Convenience variable used for forcing jumps. It is only set on the
+	// scratch copy that the plies and successors are generated on, from
+	// hasCapture(PLAYER1) before the generation starts.
+	protected boolean jumpsOnly;
 
 	/**
 	 * Initialises the board for the start of a checkers game.
@@ -62,6 +81,8 @@ public class BitCheckersBoard extends CheckersBoard {
 		if (initBoard1 != 0) {
 			board1 = initBoard1;
 			board2 = initBoard2;
+			hashKey = INITIAL_HASH_KEY;
+			material = INITIAL_MATERIAL;
 		} else {
 			for (int i = 0; i < 12; i++)
 				setPiece(i, PLAYER2_CHECKER);
@@ -84,6 +105,9 @@ public class BitCheckersBoard extends CheckersBoard {
 			BitCheckersBoard board = (BitCheckersBoard) parent;
 			this.board1 = board.board1;
 			this.board2 = board.board2;
+			this.hashKey = board.hashKey;
+			this.material = board.material;
+			this.sideToMove = board.sideToMove;
 		} else {
 			setTo(parent);
 		}
@@ -95,52 +119,69 @@ public class BitCheckersBoard extends CheckersBoard {
 	}
 
 	/**
-	 * Finds and creates the array of plies depending using
-	 * {@link #findPlies(byte, byte, ArrayList, ArrayList)}
+	 * Finds and creates the array of plies using
+	 * {@link #findPlies(byte, byte, ArrayList, ArrayList)}. The jumps are
+	 * explored on a scratch copy of this board, so this board is never
+	 * modified and it can be read by several threads at once.
 	 * 
 	 * @see checkersMain.CheckersBoard.Ply
+	 * @return the array of plies
 	 */
-	protected void createPlies() {
+	protected Ply[] createPlies() {
+		Ply[] plies = this.plies;
 		if (plies == null) {
+			BitCheckersBoard scratch = new BitCheckersBoard(this);
+			scratch.jumpsOnly = hasCapture(PLAYER1);
 			ArrayList<Ply> pliesList = new ArrayList<Ply>();
 			ArrayList<Byte> jumpIndices = new ArrayList<Byte>();
 			for (byte i = 0; i < 32; i++) {
 				byte pieceType = getPiece(i);
 				if (pieceType == PLAYER1_CHECKER || pieceType == PLAYER1_KING)
-					findPlies(i, pieceType, pliesList, jumpIndices);
+					scratch.findPlies(i, pieceType, pliesList, jumpIndices);
 			}
 
 			plies = pliesList.toArray(new Ply[pliesList.size()]);
+			this.plies = plies;
 		}
+		return plies;
 	}
 
 	/**
 	 * Finds and creates the array of successor boards depending on the what
 	 * variables have already been cached. If the plies are cached each
 	 * successor will be generated on demand, otherwise all successors are
-	 * generated using {@link #findSuccessors(byte, byte, ArrayList)}.
+	 * generated on a scratch copy of this board using
+	 * {@link #findSuccessors(byte, byte, ArrayList)}.
 	 */
-	protected void createSuccessors() {
-		if (successorBoards == null || successorBoards.get() == null) {
+	protected BitCheckersBoard[] createSuccessors() {
+		BitCheckersBoard[] successors = successorBoards;
+		if (successors == null) {
+			Ply[] plies = this.plies;
 			if (plies != null) {
-				successorBoards = new SoftReference<BitCheckersBoard[]>(
-						new BitCheckersBoard[plies.length]);
+				successors = new BitCheckersBoard[plies.length];
 			} else {
+				BitCheckersBoard scratch = new BitCheckersBoard(this);
+				scratch.jumpsOnly = hasCapture(PLAYER1);
 				ArrayList<BitCheckersBoard> successorsList = new ArrayList<BitCheckersBoard>();
 
 				for (byte i = 0; i < 32; i++) {
 					byte pieceType = getPiece(i);
 					if (pieceType == PLAYER1_CHECKER
 							|| pieceType == PLAYER1_KING)
-						findSuccessors(i, pieceType, successorsList);
+						scratch.findSuccessors(i, pieceType, successorsList);
 				}
 
-				successorBoards = new SoftReference<BitCheckersBoard[]>(
-						successorsList
-								.toArray(new BitCheckersBoard[successorsList
-										.size()]));
+				successors = successorsList
+						.toArray(new BitCheckersBoard[successorsList.size()]);
+			}
+
+			BoardCache cache = BoardCache.getDefault();
+			if (cache.isEnabled()) {
+				successorBoards = successors;
+				cache.add(this);
 			}
 		}
+		return successors;
 	}
 
 	/**
@@ -222,21 +263,20 @@ public class BitCheckersBoard extends CheckersBoard {
 		 */
 
 		// Try moving in direction
-		byte neighborIndex = CheckersBoard.getNeighborIndex(index, direction);
+		byte neighborIndex = NEIGHBORS[index][direction];
 		byte neighborContents = getPiece(neighborIndex);
 		if (neighborContents == OFFBOARD)
 			return moveFound;
 		if (neighborContents == EMPTY && !jumpsOnly) {
 			// Add ply
-			pliesList.add(new Ply((byte) pliesList.size(), new byte[] { index,
-					neighborIndex }));
+			pliesList.add(Ply.getPly((byte) pliesList.size(),
+					Ply.createSimplePath(index, direction)));
 			return true;
 		}
 		if (neighborContents == PLAYER2_CHECKER
 				|| neighborContents == PLAYER2_KING) {
 			// Try jumping in direction
-			byte neighborTwoIndex = CheckersBoard.getNeighborIndex(
-					neighborIndex, direction);
+			byte neighborTwoIndex = JUMPS[index][direction];
 			if (getPiece(neighborTwoIndex) == EMPTY) {
 
 				// If not currently searching a jump-chain, add the starting
@@ -348,7 +388,7 @@ public class BitCheckersBoard extends CheckersBoard {
 		 */
 
 		// Try moving in direction
-		byte neighborIndex = CheckersBoard.getNeighborIndex(index, direction);
+		byte neighborIndex = NEIGHBORS[index][direction];
 		byte neighborContents = getPiece(neighborIndex);
 		if (neighborContents == OFFBOARD)
 			return moveFound;
@@ -366,8 +406,7 @@ public class BitCheckersBoard extends CheckersBoard {
 		if (neighborContents == PLAYER2_CHECKER
 				|| neighborContents == PLAYER2_KING) {
 			// Try jumping in direction
-			byte neighborTwoIndex = CheckersBoard.getNeighborIndex(
-					neighborIndex, direction);
+			byte neighborTwoIndex = JUMPS[index][direction];
 			if (getPiece(neighborTwoIndex) == EMPTY) {
 
 				// If this is the first jump found, clear all prior moves
@@ -378,14 +417,16 @@ public class BitCheckersBoard extends CheckersBoard {
 				}
 
 				// Recursively look for jumps from that position
-				byte newPieceType = pieceType;
-				if (pieceType == PLAYER1_CHECKER && neighborTwoIndex / 4 == 0)
-					newPieceType = PLAYER1_KING;
+				boolean crowned = pieceType == PLAYER1_CHECKER
+						&& neighborTwoIndex / 4 == 0;
+				byte newPieceType = crowned ? PLAYER1_KING : pieceType;
 				setPiece(index, EMPTY);
 				setPiece(neighborIndex, EMPTY);
 				setPiece(neighborTwoIndex, newPieceType);
-				if (!findSuccessors(neighborTwoIndex, newPieceType,
-						successorsList))
+				// A checker that is crowned ends its ply, like in findPlies
+				if (crowned
+						|| !findSuccessors(neighborTwoIndex, newPieceType,
+								successorsList))
 					successorsList.add(clone());
 				setPiece(index, pieceType);
 				setPiece(neighborIndex, neighborContents);
@@ -403,24 +444,35 @@ public class BitCheckersBoard extends CheckersBoard {
 		invertedBoard = null;
 		plies = null;
 		successorBoards = null;
+		jumpsOnly = false;
+	}
+
+	@Override
+	protected void evictCache() {
+		invertedBoard = null;
+		successorBoards = null;
 	}
 
 	@Override
 	public int getNumPlies() {
-		if (successorBoards != null && successorBoards.get() != null)
-			return successorBoards.get().length;
+		BitCheckersBoard[] successors = successorBoards;
+		if (successors != null)
+			return successors.length;
 
-		createPlies();
-		return plies.length;
+		return createPlies().length;
 	}
 
 	@Override
 	public int getNumSuccessors() {
-		if (plies != null)
-			return plies.length;
+		if (plies == null && BoardCache.getDefault().isEnabled())
+			return createSuccessors().length;
 
-		createSuccessors();
-		return successorBoards.get().length;
+		return createPlies().length;
+	}
+
+	@Override
+	public int getMaterial() {
+		return material;
 	}
 
 	@Override
@@ -443,35 +495,63 @@ public class BitCheckersBoard extends CheckersBoard {
 
 	@Override
 	public Ply getPly(int index) {
-		createPlies();
-
-		return plies[index];
+		return createPlies()[index];
 	}
 
 	@Override
 	public BitCheckersBoard getSuccessor(int index) {
-		createSuccessors();
+		BoardCache cache = BoardCache.getDefault();
+		if (!cache.isEnabled()) {
+			BitCheckersBoard board = clone();
+			applyPly(board, createPlies()[index]);
+			return board;
+		}
 
-		BitCheckersBoard board = successorBoards.get()[index];
-		if (board == null) {
-			successorBoards.get()[index] = clone();
-			applyPly(successorBoards.get()[index], plies[index]);
+		BitCheckersBoard[] successors = successorBoards;
+		if (successors != null && successors[index] != null) {
+			cache.recordHit();
+			return successors[index];
 		}
 
-		return successorBoards.get()[index];
+		cache.recordMiss();
+		successors = createSuccessors();
+		BitCheckersBoard board = successors[index];
+		if (board == null) {
+			board = clone();
+			applyPly(board, createPlies()[index]);
+			// The published array may be read by other threads, so the
+			// successor is added to a copy that is then published
+			successors = successors.clone();
+			successors[index] = board;
+			successorBoards = successors;
+			cache.add(this);
+		}
+		return board;
 	}
 
 	@Override
 	public BitCheckersBoard invertCheckersBoard() {
-		if (invertedBoard != null && invertedBoard.get() != null)
-			return invertedBoard.get();
+		BoardCache cache = BoardCache.getDefault();
+		BitCheckersBoard inverted = invertedBoard;
+		if (inverted != null) {
+			cache.recordHit();
+			return inverted;
+		}
 
-		BitCheckersBoard board = new BitCheckersBoard();
-		board.invertedBoard = new SoftReference<BitCheckersBoard>(this);
-		invertedBoard = new SoftReference<BitCheckersBoard>(board);
+		inverted = new BitCheckersBoard();
 		for (int i = 0; i < 32; i++)
-			board.setPiece(31 - i, invertPiece(getPiece(i)));
-		return board;
+			inverted.setPiece(31 - i, invertPiece(getPiece(i)));
+		if (inverted.sideToMove != sideToMove)
+			inverted.switchSide();
+
+		if (cache.isEnabled()) {
+			cache.recordMiss();
+			inverted.invertedBoard = this;
+			invertedBoard = inverted;
+			cache.add(this);
+			cache.add(inverted);
+		}
+		return inverted;
 	}
 
 	@Override
@@ -479,6 +559,11 @@ public class BitCheckersBoard extends CheckersBoard {
 		if (index < 0 || index > 31 || pieceType == OFFBOARD)
 			return;
 
+		byte oldPieceType = getPiece(index);
+		hashKey ^= getZobristKey(index, oldPieceType)
+				^ getZobristKey(index, pieceType);
+		material += MATERIAL_UNITS[pieceType] - MATERIAL_UNITS[oldPieceType];
+
 		if (index < 21) {
 			index = 61 - index * 3;
 			board1 = (board1 & ~(7l << index)) | ((pieceType & 7l) << index);
@@ -0,0 +1,606 @@
+package checkersBoard;
+
+import java.util.Arrays;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * This is a bitboard implementation of a {@link CheckersBoard}. The board is
+ * stored as three 32-bit masks, one bit per board location: the pieces owned
+ * by Player1, the pieces owned by Player2 and the kings of either player. Bit
+ * <i>i</i> of each mask corresponds to board index <i>i</i>.
+ * <p>
+ * Plies are generated with whole-board shifts and masks, so the pieces that
+ * can move or jump in each direction are found at once instead of walking the
+ * board square by square. The plies are generated in the same order as the
+ * {@link DefaultCheckersBoard}, so ply and successor indices match between
+ * the two implementations.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class BitboardCheckersBoard extends CheckersBoard {
+
+	/**
+	 * The mask of the pieces owned by Player1.
+	 */
+	protected int player1;
+	/**
+	 * The mask of the pieces owned by Player2.
+	 */
+	protected int player2;
+	/**
+	 * The mask of the kings owned by either player.
+	 */
+	protected int kings;
+
+	/**
+	 * A cache of the array of possible moves. The array is filled in before
+	 * it is published, so readers on other threads see every move.
+	 *
+	 * @see CheckersBoard#createMove(int, int, int)
+	 */
+	protected volatile long[] moves;
+	/**
+	 * A cache of the array of possible plies. The array is filled in before
+	 * it is published, so readers on other threads see every ply.
+	 */
+	protected volatile Ply[] plies;
+
+	/**
+	 * Initialises the board for the start of a checkers game.
+	 */
+	public BitboardCheckersBoard() {
+		super();
+		player1 = 0xFFF00000;
+		player2 = 0x00000FFF;
+		hashKey = INITIAL_HASH_KEY;
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param parent
+	 *            - CheckersBoard to copy
+	 */
+	public BitboardCheckersBoard(CheckersBoard parent) {
+		super();
+		if (parent instanceof BitboardCheckersBoard) {
+			BitboardCheckersBoard board = (BitboardCheckersBoard) parent;
+			this.player1 = board.player1;
+			this.player2 = board.player2;
+			this.kings = board.kings;
+			this.hashKey = board.hashKey;
+			this.sideToMove = board.sideToMove;
+		} else {
+			setTo(parent);
+		}
+	}
+
+	@Override
+	public BitboardCheckersBoard clone() {
+		return new BitboardCheckersBoard(this);
+	}
+
+	/**
+	 * Finds and creates the array of possible Player1 moves using
+	 * {@link #generateMoves(long[], long[], byte)}.
+	 *
+	 * @return the array of moves
+	 */
+	protected long[] createMoves() {
+		long[] moves = this.moves;
+		if (moves == null) {
+			long[] buffer = new long[MAX_MOVES];
+			moves = Arrays.copyOf(buffer,
+					generateMoves(buffer, null, PLAYER1));
+			this.moves = moves;
+		}
+		return moves;
+	}
+
+	/**
+	 * Finds and creates the array of plies using
+	 * {@link #generateMoves(long[], long[], byte)}.
+	 *
+	 * @see checkersMain.CheckersBoard.Ply
+	 * @return the array of plies
+	 */
+	protected Ply[] createPlies() {
+		Ply[] plies = this.plies;
+		if (plies == null) {
+			long[] buffer = new long[MAX_MOVES];
+			long[] paths = new long[MAX_MOVES];
+			int numMoves = generateMoves(buffer, paths, PLAYER1);
+
+			plies = new Ply[numMoves];
+			for (int i = 0; i < numMoves; i++)
+				plies[i] = Ply.getPly((byte) i, paths[i]);
+			if (moves == null)
+				moves = Arrays.copyOf(buffer, numMoves);
+			this.plies = plies;
+		}
+		return plies;
+	}
+
+	/**
+	 * Writes the possible moves of the passed side into the passed buffer. If
+	 * any of the side's pieces can jump, only the jumps are generated using
+	 * {@link #findJumps(int, int, boolean, byte[], int, int, int, long[], int, long[], long)}
+	 * , otherwise the simple moves are read off the movers masks of each
+	 * direction. Player1's pieces are visited in ascending and Player2's in
+	 * descending index order, in the side's {@link #SIDE_DIRECTIONS}.
+	 *
+	 * @param moves
+	 *            - the buffer the moves are written to
+	 * @param paths
+	 *            - if not null, the packed {@link Ply} path of each move is
+	 *            written to the same index as its move
+	 * @param side
+	 *            - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of moves written into the buffer
+	 */
+	protected int generateMoves(long[] moves, long[] paths, byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int own = side == PLAYER1 ? player1 : player2;
+		int opponents = side == PLAYER1 ? player2 : player1;
+		int ownKings = own & kings;
+		int empty = ~(player1 | player2);
+		int count = 0;
+
+		int jumpers = getJumpers(side);
+		if (jumpers != 0) {
+			while (jumpers != 0) {
+				int index = getNextPiece(jumpers, side);
+				jumpers &= ~(1 << index);
+				count = findJumps(index, index, (kings & (1 << index)) != 0,
+						directions, opponents, 0, empty, moves, count, paths,
+						Ply.createJumpPath(index));
+			}
+			return count;
+		}
+
+		/*
+		 * Pieces that can move in each direction. Checkers only move in the
+		 * first two directions, and the opposite of a direction is the
+		 * direction with the high bit flipped.
+		 */
+		int move0 = own & shiftMask(empty, (byte) (directions[0] ^ 2));
+		int move1 = own & shiftMask(empty, (byte) (directions[1] ^ 2));
+		int move2 = ownKings
+				& shiftMask(empty, (byte) (directions[2] ^ 2));
+		int move3 = ownKings
+				& shiftMask(empty, (byte) (directions[3] ^ 2));
+		int movers = move0 | move1 | move2 | move3;
+
+		while (movers != 0) {
+			int index = getNextPiece(movers, side);
+			int bit = 1 << index;
+			movers ^= bit;
+			if ((move0 & bit) != 0)
+				count = addSimpleMove(index, directions[0], moves, count, paths);
+			if ((move1 & bit) != 0)
+				count = addSimpleMove(index, directions[1], moves, count, paths);
+			if ((move2 & bit) != 0)
+				count = addSimpleMove(index, directions[2], moves, count, paths);
+			if ((move3 & bit) != 0)
+				count = addSimpleMove(index, directions[3], moves, count, paths);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the simple move of the piece at the passed index in the passed
+	 * direction into the move buffer.
+	 *
+	 * @param index
+	 *            - the board index of the moving piece
+	 * @param direction
+	 *            - the direction of the move
+	 * @param moves
+	 *            - the buffer the move is written to
+	 * @param count
+	 *            - the number of moves already in the buffer
+	 * @param paths
+	 *            - if not null, the buffer the move's path is written to
+	 * @return the number of moves in the buffer
+	 */
+	private static int addSimpleMove(int index, byte direction, long[] moves,
+			int count, long[] paths) {
+		if (paths != null)
+			paths[count] = Ply.createSimplePath(index, direction);
+		moves[count] = createMove(index, NEIGHBORS[index][direction], 0);
+		return count + 1;
+	}
+
+	/**
+	 * This method finds all jump-chains continuing from the passed index and
+	 * writes a move for each completed chain. Jumped pieces are removed for
+	 * the rest of the chain, so a piece can not be jumped twice. A checker
+	 * that reaches the king row ends its ply there.
+	 *
+	 * @param origin
+	 *            - the board index where the jump-chain started
+	 * @param index
+	 *            - the board index of the jumping piece
+	 * @param king
+	 *            - whether the jumping piece is a king
+	 * @param directions
+	 *            - the directions of the moving side, one of
+	 *            {@link #SIDE_DIRECTIONS}
+	 * @param opponents
+	 *            - the mask of the pieces that can be jumped
+	 * @param captured
+	 *            - the mask of the pieces jumped so far in this jump-chain
+	 * @param empty
+	 *            - the mask of the empty board locations
+	 * @param moves
+	 *            - the buffer the moves are written to, or null to only
+	 *            count them
+	 * @param count
+	 *            - the number of moves already in the buffer
+	 * @param paths
+	 *            - if not null, the buffer the jump paths are written to
+	 * @param path
+	 *            - the packed {@link Ply} path of this jump-chain so far
+	 * @return the number of moves in the buffer after the search
+	 */
+	protected int findJumps(int origin, int index, boolean king,
+			byte[] directions, int opponents, int captured, int empty,
+			long[] moves, int count, long[] paths, long path) {
+		int bit = 1 << index;
+		for (int i = 0; i < (king ? 4 : 2); i++) {
+			byte direction = directions[i];
+			int jumped = shiftMask(bit, direction) & opponents & ~captured;
+			int landing = shiftMask(jumped, direction) & empty;
+			if (landing == 0)
+				continue;
+
+			int landingIndex = Integer.numberOfTrailingZeros(landing);
+			long landingPath = paths == null ? path : Ply.appendStep(path,
+					direction);
+			int next = findJumps(origin, landingIndex, king, directions,
+					opponents, captured | jumped, (empty | bit | jumped)
+							& ~landing, moves, count, paths, landingPath);
+			// If no more jumps are found add the move
+			if (next == count) {
+				if (paths != null)
+					paths[count] = landingPath;
+				if (moves != null)
+					moves[count] = createMove(origin, landingIndex, captured
+							| jumped);
+				count++;
+			} else
+				count = next;
+		}
+		return count;
+	}
+
+	@Override
+	public void freeCache() {
+		moves = null;
+		plies = null;
+	}
+
+	/**
+	 * Returns the material summary of this board by counting the bits of the
+	 * masks.
+	 */
+	@Override
+	public int getMaterial() {
+		return Integer.bitCount(player1 & ~kings)
+				* MATERIAL_UNITS[PLAYER1_CHECKER]
+				+ Integer.bitCount(player1 & kings)
+				* MATERIAL_UNITS[PLAYER1_KING]
+				+ Integer.bitCount(player2 & ~kings)
+				* MATERIAL_UNITS[PLAYER2_CHECKER]
+				+ Integer.bitCount(player2 & kings)
+				* MATERIAL_UNITS[PLAYER2_KING];
+	}
+
+	/**
+	 * Returns the mask of the pieces that can jump, found with whole-board
+	 * shifts: a piece can jump in a direction if shifting the empty locations
+	 * twice against that direction, through an opponent, reaches it.
+	 */
+	@Override
+	public int getJumpers(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int own = side == PLAYER1 ? player1 : player2;
+		int opponents = side == PLAYER1 ? player2 : player1;
+		int empty = ~(player1 | player2);
+
+		// Checkers only jump in the first two directions
+		int checkerJumpers = 0;
+		int kingJumpers = 0;
+		for (int i = 0; i < 4; i++) {
+			byte opposite = (byte) (directions[i] ^ 2);
+			int jumpers = shiftMask(shiftMask(empty, opposite) & opponents,
+					opposite);
+			if (i < 2)
+				checkerJumpers |= jumpers;
+			else
+				kingJumpers |= jumpers;
+		}
+		return own & (checkerJumpers | (kingJumpers & kings));
+	}
+
+	@Override
+	public int getMoves(long[] moves, byte side) {
+		return generateMoves(moves, null, side);
+	}
+
+	/**
+	 * Returns the mask of the pieces that can make a simple move, found with
+	 * whole-board shifts of the empty locations.
+	 */
+	@Override
+	public int getMovers(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int own = side == PLAYER1 ? player1 : player2;
+		int empty = ~(player1 | player2);
+		// Checkers only move in the first two directions
+		int checkerMovers = shiftMask(empty, (byte) (directions[0] ^ 2))
+				| shiftMask(empty, (byte) (directions[1] ^ 2));
+		int kingMovers = shiftMask(empty, (byte) (directions[2] ^ 2))
+				| shiftMask(empty, (byte) (directions[3] ^ 2));
+		return own & (checkerMovers | (kingMovers & kings));
+	}
+
+	@Override
+	public int getPieces(byte side) {
+		return side == PLAYER1 ? player1 : player2;
+	}
+
+	@Override
+	public int getKings(byte side) {
+		return (side == PLAYER1 ? player1 : player2) & kings;
+	}
+
+	/**
+	 * Counts the simple moves with whole-board shifts of the empty locations,
+	 * one population count per direction.
+	 */
+	@Override
+	protected int countSimpleMoves(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int own = side == PLAYER1 ? player1 : player2;
+		int empty = ~(player1 | player2);
+		int count = 0;
+		// Checkers only move in the first two directions
+		for (int i = 0; i < 4; i++)
+			count += Integer.bitCount(shiftMask(empty,
+					(byte) (directions[i] ^ 2))
+					& (i < 2 ? own : own & kings));
+		return count;
+	}
+
+	@Override
+	public int getPieceMoves(int index, boolean jumps, long[] moves, int count) {
+		int bit = 1 << index;
+		byte side;
+		if ((player1 & bit) != 0)
+			side = PLAYER1;
+		else if ((player2 & bit) != 0)
+			side = PLAYER2;
+		else
+			return count;
+
+		byte[] directions = SIDE_DIRECTIONS[side];
+		boolean king = (kings & bit) != 0;
+		int empty = ~(player1 | player2);
+		if (jumps)
+			return findJumps(index, index, king, directions,
+					side == PLAYER1 ? player2 : player1, 0, empty, moves,
+					count, null, Ply.createJumpPath(index));
+
+		for (int i = 0; i < (king ? 4 : 2); i++) {
+			int neighbor = shiftMask(bit, directions[i]) & empty;
+			if (neighbor != 0) {
+				if (moves != null)
+					moves[count] = createMove(index,
+							Integer.numberOfTrailingZeros(neighbor), 0);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getNumPlies() {
+		return createMoves().length;
+	}
+
+	@Override
+	public int getNumSuccessors() {
+		return getNumPlies();
+	}
+
+	@Override
+	public byte getPiece(int index) {
+		if (index < 0 || index > 31)
+			return OFFBOARD;
+
+		int bit = 1 << index;
+		if ((player1 & bit) != 0)
+			return (kings & bit) != 0 ? PLAYER1_KING : PLAYER1_CHECKER;
+		if ((player2 & bit) != 0)
+			return (kings & bit) != 0 ? PLAYER2_KING : PLAYER2_CHECKER;
+		return EMPTY;
+	}
+
+	@Override
+	public byte getPiece(int row, int col) {
+		return getPiece(getIndex(row, col));
+	}
+
+	@Override
+	public Ply getPly(int index) {
+		return createPlies()[index];
+	}
+
+	/**
+	 * Returns the successor board resulting from the ply at the corresponding
+	 * index. Successors are cheap to create from the masks, so they are not
+	 * cached and a new board is returned on every call.
+	 */
+	@Override
+	public BitboardCheckersBoard getSuccessor(int index) {
+		long move = createMoves()[index];
+		int from = 1 << getMoveFrom(move);
+		int to = 1 << getMoveTo(move);
+		int captured = getMoveCaptured(move);
+
+		BitboardCheckersBoard board = new BitboardCheckersBoard(this);
+		board.player1 = (player1 & ~from) | to;
+		board.player2 = player2 & ~captured;
+		board.kings = kings & ~captured;
+		if ((kings & from) != 0 || (to & BACK_RANKS[PLAYER2]) != 0)
+			board.kings = (board.kings & ~from) | to;
+		board.hashKey ^= getMoveHashKey(move, PLAYER1, (kings & from) != 0,
+				(board.kings & to) != 0, kings & captured);
+		return board;
+	}
+
+	/**
+	 * Creates a new inverted board. As inverting the masks only takes a bit
+	 * reversal, the inverted board is not cached.
+	 */
+	@Override
+	public BitboardCheckersBoard invertCheckersBoard() {
+		BitboardCheckersBoard board = new BitboardCheckersBoard(this);
+		board.player1 = Integer.reverse(player2);
+		board.player2 = Integer.reverse(player1);
+		board.kings = Integer.reverse(kings);
+		board.hashKey = Long.reverse(hashKey);
+		return board;
+	}
+
+	/**
+	 * Returns the change in hash key caused by the passed move, which is the
+	 * same whether the move is being made or unmade.
+	 * 
+	 * @param move
+	 *            - the packed move
+	 * @param side
+	 *            - the side making the move
+	 * @param wasKing
+	 *            - whether the moving piece was a king before the move
+	 * @param isKing
+	 *            - whether the moving piece is a king after the move
+	 * @param capturedKings
+	 *            - mask of the captured pieces that were kings
+	 * @return the value to XOR into the hash key
+	 */
+	protected static long getMoveHashKey(long move, byte side,
+			boolean wasKing, boolean isKing, int capturedKings) {
+		long key = getZobristKey(getMoveFrom(move), wasKing ? KINGS[side]
+				: CHECKERS[side])
+				^ getZobristKey(getMoveTo(move), isKing ? KINGS[side]
+						: CHECKERS[side]);
+		int captured = getMoveCaptured(move);
+		while (captured != 0) {
+			int index = Integer.numberOfTrailingZeros(captured);
+			captured &= captured - 1;
+			key ^= getZobristKey(index,
+					(capturedKings & (1 << index)) != 0 ? KINGS[side ^ 1]
+							: CHECKERS[side ^ 1]);
+		}
+		return key;
+	}
+
+	@Override
+	public int makeMove(long move) {
+		int from = 1 << getMoveFrom(move);
+		int to = 1 << getMoveTo(move);
+		int captured = getMoveCaptured(move);
+		byte side = sideToMove;
+		int undo = kings & captured;
+		boolean wasKing = (kings & from) != 0;
+
+		if (side == PLAYER1) {
+			player1 = (player1 & ~from) | to;
+			player2 &= ~captured;
+		} else {
+			player2 = (player2 & ~from) | to;
+			player1 &= ~captured;
+		}
+		if (wasKing) {
+			kings = (kings & ~from & ~captured) | to;
+		} else {
+			kings &= ~captured;
+			if ((to & BACK_RANKS[side ^ 1]) != 0) {
+				kings |= to;
+				undo |= to;
+			}
+		}
+		hashKey ^= getMoveHashKey(move, side, wasKing, (kings & to) != 0,
+				undo & captured);
+
+		switchSide();
+		freeCache();
+		return undo;
+	}
+
+	@Override
+	public void unmakeMove(long move, int undo) {
+		int from = 1 << getMoveFrom(move);
+		int to = 1 << getMoveTo(move);
+		int captured = getMoveCaptured(move);
+
+		switchSide();
+		byte side = sideToMove;
+
+		boolean isKing = (kings & to) != 0;
+		hashKey ^= getMoveHashKey(move, side, isKing && (undo & to) == 0,
+				isKing, undo & captured);
+		if (side == PLAYER1) {
+			player1 = (player1 & ~to) | from;
+			player2 |= captured;
+		} else {
+			player2 = (player2 & ~to) | from;
+			player1 |= captured;
+		}
+		if (isKing && (undo & to) == 0)
+			kings = (kings & ~to) | from;
+		else
+			kings &= ~to;
+		kings |= undo & captured;
+
+		freeCache();
+	}
+
+	@Override
+	protected void setPiece(int index, byte pieceType) {
+		if (index < 0 || index > 31 || pieceType == OFFBOARD)
+			return;
+
+		hashKey ^= getZobristKey(index, getPiece(index))
+				^ getZobristKey(index, pieceType);
+
+		int bit = 1 << index;
+		player1 &= ~bit;
+		player2 &= ~bit;
+		kings &= ~bit;
+		switch (pieceType) {
+		case (PLAYER1_KING):
+			player1 |= bit;
+			kings |= bit;
+			break;
+		case (PLAYER1_CHECKER):
+			player1 |= bit;
+			break;
+		case (PLAYER2_KING):
+			player2 |= bit;
+			kings |= bit;
+			break;
+		case (PLAYER2_CHECKER):
+			player2 |= bit;
+			break;
+		}
+	}
+
+	@Override
+	protected void setPiece(int row, int col, byte pieceType) {
+		setPiece(getIndex(row, col), pieceType);
+	}
+}
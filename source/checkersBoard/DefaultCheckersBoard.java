@@ -1,15 +1,15 @@
 package checkersBoard;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 
+import checkersMain.BoardCache;
 import checkersMain.CheckersBoard;
 
 /**
  * This is a Default implementation of a {@link CheckersBoard}. It implements
  * caching of plies and successor boards, and it uses a straightforward storage
- * of the board as an array of bytes. It uses {@link SoftReference}s for the
- * plies and successor boards to prevent {@link OutOfMemoryError}s.
+ * of the board as an array of bytes. The successor and inverted board
+ * caches are bounded by the {@link BoardCache}.
  * 
  * @author Jeremy Hoffman (v1.00)
  * @author Amos Yuen
@@ -17,6 +17,13 @@ import checkersMain.CheckersBoard;
  */
 public class DefaultCheckersBoard extends CheckersBoard {
 
+	/**
+	 * A lookup table of {@link CheckersBoard#invertPiece(byte)} for the piece
+	 * types that can be stored in the board.
+	 */
+	protected static final byte[] INVERTED_PIECES = { EMPTY, PLAYER2_CHECKER,
+			PLAYER2_KING, PLAYER1_CHECKER, PLAYER1_KING };
+
 	/**
 	 * An array of 32 bytes. It only keeps track of the locations on the board
 	 * that can contain Checkers pieces, and each location stores
@@ -31,26 +38,38 @@ public class DefaultCheckersBoard extends CheckersBoard {
 	protected final byte[] board;
 
 	/**
-	 * A cache of the array of possible plies.
+	 * The material summary of the board, kept up to date with the board.
+	 * 
+	 * @see CheckersBoard#getMaterial()
+	 */
+	protected int material;
+
+	/**
+	 * A cache of the array of possible plies. The array is filled in before
+	 * it is published, so readers on other threads see every ply.
 	 */
-	protected Ply[] plies;
+	protected volatile Ply[] plies;
 
 	/**
-	 * A cache of the inverted board. It uses a soft reference to help prevent
-	 * an {@link OutOfMemoryError}
+	 * A cache of the inverted board. It is bounded by the {@link BoardCache}.
 	 * 
-	 * @see SoftReference
+	 * @see BoardCache
 	 */
-	protected SoftReference<DefaultCheckersBoard> invertedBoard;
+	protected volatile DefaultCheckersBoard invertedBoard;
 	/**
-	 * A cache of the successor boards. It uses a soft reference to help prevent
-	 * an {@link OutOfMemoryError}
+	 * A cache of the successor boards. It is bounded by the {@link BoardCache}.
+	 * A published array is never written to; a new successor is added by
+	 * publishing a copy of the array, so readers never see a successor board
+	 * that is still being created.
 	 * 
-	 * @see SoftReference
+	 * @see BoardCache
 	 */
-	protected SoftReference<DefaultCheckersBoard[]> successorBoards;
+	protected volatile DefaultCheckersBoard[] successorBoards;
 
-	protected boolean jumpsOnly; // Convenience variable used for forcing jumps
+	// Convenience variable used for forcing jumps. It is only set on the
+	// scratch copy that the plies and successors are generated on, from
+	// hasCapture(PLAYER1) before the generation starts.
+	protected boolean jumpsOnly;
 
 	/**
 	 * Initialises the board for the start of a checkers game.
@@ -66,6 +85,8 @@ public class DefaultCheckersBoard extends CheckersBoard {
 				PLAYER1_CHECKER, PLAYER1_CHECKER, PLAYER1_CHECKER,
 				PLAYER1_CHECKER, PLAYER1_CHECKER, PLAYER1_CHECKER,
 				PLAYER1_CHECKER, PLAYER1_CHECKER, PLAYER1_CHECKER };
+		hashKey = INITIAL_HASH_KEY;
+		material = INITIAL_MATERIAL;
 	}
 
 	/**
@@ -79,6 +100,9 @@ public class DefaultCheckersBoard extends CheckersBoard {
 		if (parent instanceof DefaultCheckersBoard) {
 			DefaultCheckersBoard board = (DefaultCheckersBoard) parent;
 			this.board = board.board.clone();
+			this.hashKey = board.hashKey;
+			this.material = board.material;
+			this.sideToMove = board.sideToMove;
 		} else {
 			board = new byte[32];
 			setTo(parent);
@@ -91,52 +115,69 @@ public class DefaultCheckersBoard extends CheckersBoard {
 	}
 
 	/**
-	 * Finds and creates the array of plies depending using
-	 * {@link #findPlies(byte, ArrayList, ArrayList)}
+	 * Finds and creates the array of plies using
+	 * {@link #findPlies(byte, ArrayList, ArrayList)}. The jumps are explored
+	 * on a scratch copy of this board, so this board is never modified and it
+	 * can be read by several threads at once.
 	 * 
 	 * @see checkersMain.CheckersBoard.Ply
+	 * @return the array of plies
 	 */
-	protected void createPlies() {
+	protected Ply[] createPlies() {
+		Ply[] plies = this.plies;
 		if (plies == null) {
+			DefaultCheckersBoard scratch = new DefaultCheckersBoard(this);
+			scratch.jumpsOnly = hasCapture(PLAYER1);
 			ArrayList<Ply> pliesList = new ArrayList<Ply>();
 			ArrayList<Byte> jumpIndices = new ArrayList<Byte>();
 			for (byte i = 0; i < 32; i++) {
 				byte pieceType = board[i];
 				if (pieceType == PLAYER1_CHECKER || pieceType == PLAYER1_KING)
-					findPlies(i, pliesList, jumpIndices);
+					scratch.findPlies(i, pliesList, jumpIndices);
 			}
 
 			plies = pliesList.toArray(new Ply[pliesList.size()]);
+			this.plies = plies;
 		}
+		return plies;
 	}
 
 	/**
 	 * Finds and creates the array of successor boards depending on the what
 	 * variables have already been cached. If the plies are cached each
 	 * successor will be generated on demand, otherwise all successors are
-	 * generated using {@link #findSuccessors(byte, ArrayList)}.
+	 * generated on a scratch copy of this board using
+	 * {@link #findSuccessors(byte, ArrayList)}.
 	 */
-	protected void createSuccessors() {
-		if (successorBoards == null || successorBoards.get() == null) {
+	protected DefaultCheckersBoard[] createSuccessors() {
+		DefaultCheckersBoard[] successors = successorBoards;
+		if (successors == null) {
+			Ply[] plies = this.plies;
 			if (plies != null) {
-				successorBoards = new SoftReference<DefaultCheckersBoard[]>(
-						new DefaultCheckersBoard[plies.length]);
+				successors = new DefaultCheckersBoard[plies.length];
 			} else {
+				DefaultCheckersBoard scratch = new DefaultCheckersBoard(this);
+				scratch.jumpsOnly = hasCapture(PLAYER1);
 				ArrayList<DefaultCheckersBoard> successorsList = new ArrayList<DefaultCheckersBoard>();
 
 				for (byte i = 0; i < 32; i++) {
 					byte pieceType = board[i];
 					if (pieceType == PLAYER1_CHECKER
 							|| pieceType == PLAYER1_KING)
-						findSuccessors(i, successorsList);
+						scratch.findSuccessors(i, successorsList);
 				}
 
-				successorBoards = new SoftReference<DefaultCheckersBoard[]>(
-						successorsList
-								.toArray(new DefaultCheckersBoard[successorsList
-										.size()]));
+				successors = successorsList
+						.toArray(new DefaultCheckersBoard[successorsList.size()]);
+			}
+
+			BoardCache cache = BoardCache.getDefault();
+			if (cache.isEnabled()) {
+				successorBoards = successors;
+				cache.add(this);
 			}
 		}
+		return successors;
 	}
 
 	/**
@@ -214,22 +255,21 @@ public class DefaultCheckersBoard extends CheckersBoard {
 		byte pieceType = board[index]; // PLAYER1_CHECKER or PLAYER1_KING
 
 		// Try moving in direction
-		byte neighborIndex = CheckersBoard.getNeighborIndex(index, direction);
-		if (neighborIndex < 0 || neighborIndex > 31)
+		byte neighborIndex = NEIGHBORS[index][direction];
+		if (neighborIndex < 0)
 			return moveFound;
 		byte neighborContents = board[neighborIndex];
 		if (neighborContents == EMPTY && !jumpsOnly) {
 			// Add ply
-			pliesList.add(new Ply((byte) pliesList.size(), new byte[] { index,
-					neighborIndex }));
+			pliesList.add(Ply.getPly((byte) pliesList.size(),
+					Ply.createSimplePath(index, direction)));
 			return true;
 		}
 		if (neighborContents == PLAYER2_CHECKER
 				|| neighborContents == PLAYER2_KING) {
 			// Try jumping in direction
-			byte neighborTwoIndex = CheckersBoard.getNeighborIndex(
-					neighborIndex, direction);
-			if (neighborTwoIndex < 0 || neighborTwoIndex > 31)
+			byte neighborTwoIndex = JUMPS[index][direction];
+			if (neighborTwoIndex < 0)
 				return moveFound;
 			if (board[neighborTwoIndex] == EMPTY) {
 
@@ -335,8 +375,8 @@ public class DefaultCheckersBoard extends CheckersBoard {
 		byte pieceType = board[index]; // PLAYER1_CHECKER or PLAYER1_KING
 
 		// Try moving in direction
-		byte neighborIndex = CheckersBoard.getNeighborIndex(index, direction);
-		if (neighborIndex < 0 || neighborIndex > 31)
+		byte neighborIndex = NEIGHBORS[index][direction];
+		if (neighborIndex < 0)
 			return moveFound;
 		byte neighborContents = board[neighborIndex];
 		if (neighborContents == OFFBOARD)
@@ -344,20 +384,19 @@ public class DefaultCheckersBoard extends CheckersBoard {
 		if (neighborContents == EMPTY && !jumpsOnly) {
 			// Add successor board
 			DefaultCheckersBoard successor = clone();
-			successor.board[index] = EMPTY;
+			successor.setPiece(index, EMPTY);
 			if (pieceType == PLAYER1_CHECKER && neighborIndex / 4 == 0)
-				successor.board[neighborIndex] = PLAYER1_KING;
+				successor.setPiece(neighborIndex, PLAYER1_KING);
 			else
-				successor.board[neighborIndex] = pieceType;
+				successor.setPiece(neighborIndex, pieceType);
 			successorsList.add(successor);
 			return true;
 		}
 		if (neighborContents == PLAYER2_CHECKER
 				|| neighborContents == PLAYER2_KING) {
 			// Try jumping in direction
-			byte neighborTwoIndex = CheckersBoard.getNeighborIndex(
-					neighborIndex, direction);
-			if (neighborTwoIndex < 0 || neighborTwoIndex > 31)
+			byte neighborTwoIndex = JUMPS[index][direction];
+			if (neighborTwoIndex < 0)
 				return moveFound;
 			if (board[neighborTwoIndex] == EMPTY) {
 
@@ -368,18 +407,19 @@ public class DefaultCheckersBoard extends CheckersBoard {
 					jumpsOnly = true;
 				}
 
-				// Recursively look for jumps from that position
-				board[index] = EMPTY;
-				board[neighborIndex] = EMPTY;
-				if (pieceType == PLAYER1_CHECKER && neighborTwoIndex / 4 == 0)
-					board[neighborTwoIndex] = PLAYER1_KING;
-				else
-					board[neighborTwoIndex] = pieceType;
-				if (!findSuccessors(neighborTwoIndex, successorsList))
+				// Recursively look for jumps from that position. The successors
+				// are cloned from this board, so the hash key is kept up to date
+				setPiece(index, EMPTY);
+				setPiece(neighborIndex, EMPTY);
+				boolean crowned = pieceType == PLAYER1_CHECKER
+						&& neighborTwoIndex / 4 == 0;
+				setPiece(neighborTwoIndex, crowned ? PLAYER1_KING : pieceType);
+				// A checker that is crowned ends its ply, like in findPlies
+				if (crowned || !findSuccessors(neighborTwoIndex, successorsList))
 					successorsList.add(clone());
-				board[index] = pieceType;
-				board[neighborIndex] = neighborContents;
-				board[neighborTwoIndex] = EMPTY;
+				setPiece(index, pieceType);
+				setPiece(neighborIndex, neighborContents);
+				setPiece(neighborTwoIndex, EMPTY);
 
 				return true;
 			}
@@ -393,24 +433,156 @@ public class DefaultCheckersBoard extends CheckersBoard {
 		invertedBoard = null;
 		plies = null;
 		successorBoards = null;
+		jumpsOnly = false;
+	}
+
+	@Override
+	protected void evictCache() {
+		invertedBoard = null;
+		successorBoards = null;
+	}
+
+	@Override
+	public int getMaterial() {
+		return material;
+	}
+
+	@Override
+	public int getJumpers(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		byte checker = CHECKERS[side];
+		byte king = KINGS[side];
+		byte opponentChecker = CHECKERS[side ^ 1];
+		byte opponentKing = KINGS[side ^ 1];
+		int jumpers = 0;
+		for (int i = 0; i < 32; i++) {
+			byte pieceType = board[i];
+			if (pieceType != checker && pieceType != king)
+				continue;
+
+			int numDirections = pieceType == king ? 4 : 2;
+			for (int d = 0; d < numDirections; d++) {
+				byte neighborTwoIndex = JUMPS[i][directions[d]];
+				if (neighborTwoIndex < 0 || board[neighborTwoIndex] != EMPTY)
+					continue;
+				byte neighborContents = board[NEIGHBORS[i][directions[d]]];
+				if (neighborContents == opponentChecker
+						|| neighborContents == opponentKing) {
+					jumpers |= 1 << i;
+					break;
+				}
+			}
+		}
+		return jumpers;
+	}
+
+	@Override
+	public int getMoves(long[] moves, byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		byte checker = CHECKERS[side];
+		byte king = KINGS[side];
+		int count = 0;
+		boolean jumpsOnly = false;
+		for (int n = 0; n < 32; n++) {
+			byte i = (byte) (side == PLAYER1 ? n : 31 - n);
+			byte pieceType = board[i];
+			if (pieceType != checker && pieceType != king)
+				continue;
+
+			int numDirections = pieceType == king ? 4 : 2;
+
+			// If this is the first jump found, prior moves are overwritten
+			int start = jumpsOnly ? count : 0;
+			int end = findJumpMoves(i, i, directions, numDirections,
+					CHECKERS[side ^ 1], KINGS[side ^ 1], 0, moves, start);
+			if (end > start) {
+				jumpsOnly = true;
+				count = end;
+			} else if (!jumpsOnly) {
+				for (int d = 0; d < numDirections; d++) {
+					byte neighborIndex = NEIGHBORS[i][directions[d]];
+					if (neighborIndex >= 0 && board[neighborIndex] == EMPTY)
+						moves[count++] = createMove(i, neighborIndex, 0);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes every jump-chain continuing from the passed index into the move
+	 * buffer. The board is not modified; the starting location and the jumped
+	 * pieces are treated as empty for the rest of the chain instead.
+	 * 
+	 * @param origin
+	 *            - the index where the jump-chain started
+	 * @param index
+	 *            - the current index of the jumping piece
+	 * @param directions
+	 *            - the directions of the moving side, one of
+	 *            {@link CheckersBoard#SIDE_DIRECTIONS}
+	 * @param numDirections
+	 *            - the number of directions the piece can move in
+	 * @param opponentChecker
+	 *            - the checker piece type that can be jumped
+	 * @param opponentKing
+	 *            - the king piece type that can be jumped
+	 * @param captured
+	 *            - the mask of the pieces jumped so far
+	 * @param moves
+	 *            - the buffer the moves are written to
+	 * @param count
+	 *            - the number of moves already in the buffer
+	 * @return the number of moves in the buffer after the search
+	 */
+	protected int findJumpMoves(byte origin, byte index, byte[] directions,
+			int numDirections, byte opponentChecker, byte opponentKing,
+			int captured, long[] moves, int count) {
+		for (int d = 0; d < numDirections; d++) {
+			byte neighborIndex = NEIGHBORS[index][directions[d]];
+			if (neighborIndex < 0)
+				continue;
+			byte neighborContents = board[neighborIndex];
+			if ((neighborContents != opponentChecker && neighborContents != opponentKing)
+					|| (captured & (1 << neighborIndex)) != 0)
+				continue;
+
+			byte neighborTwoIndex = JUMPS[index][directions[d]];
+			if (neighborTwoIndex < 0)
+				continue;
+			if (board[neighborTwoIndex] != EMPTY && neighborTwoIndex != origin
+					&& (captured & (1 << neighborTwoIndex)) == 0)
+				continue;
+
+			int newCaptured = captured | (1 << neighborIndex);
+			int next = findJumpMoves(origin, neighborTwoIndex, directions,
+					numDirections, opponentChecker, opponentKing, newCaptured,
+					moves, count);
+			// If no more jumps are found add the move
+			if (next == count)
+				moves[count++] = createMove(origin, neighborTwoIndex,
+						newCaptured);
+			else
+				count = next;
+		}
+		return count;
 	}
 
 	@Override
 	public int getNumPlies() {
-		if (successorBoards != null && successorBoards.get() != null)
-			return successorBoards.get().length;
+		DefaultCheckersBoard[] successors = successorBoards;
+		if (successors != null)
+			return successors.length;
 
-		createPlies();
-		return plies.length;
+		return createPlies().length;
 	}
 
 	@Override
 	public int getNumSuccessors() {
-		if (plies != null)
-			return plies.length;
+		if (plies == null && BoardCache.getDefault().isEnabled())
+			return createSuccessors().length;
 
-		createSuccessors();
-		return successorBoards.get().length;
+		return createPlies().length;
 	}
 
 	@Override
@@ -427,42 +599,144 @@ public class DefaultCheckersBoard extends CheckersBoard {
 
 	@Override
 	public Ply getPly(int index) {
-		createPlies();
-
-		return plies[index];
+		return createPlies()[index];
 	}
 
 	@Override
 	public DefaultCheckersBoard getSuccessor(int index) {
-		createSuccessors();
+		BoardCache cache = BoardCache.getDefault();
+		if (!cache.isEnabled()) {
+			DefaultCheckersBoard board = clone();
+			applyPly(board, createPlies()[index]);
+			return board;
+		}
 
-		DefaultCheckersBoard board = successorBoards.get()[index];
-		if (board == null) {
-			successorBoards.get()[index] = clone();
-			applyPly(successorBoards.get()[index], plies[index]);
+		DefaultCheckersBoard[] successors = successorBoards;
+		if (successors != null && successors[index] != null) {
+			cache.recordHit();
+			return successors[index];
 		}
 
-		return successorBoards.get()[index];
+		cache.recordMiss();
+		successors = createSuccessors();
+		DefaultCheckersBoard board = successors[index];
+		if (board == null) {
+			board = clone();
+			applyPly(board, createPlies()[index]);
+			// The published array may be read by other threads, so the
+			// successor is added to a copy that is then published
+			successors = successors.clone();
+			successors[index] = board;
+			successorBoards = successors;
+			cache.add(this);
+		}
+		return board;
 	}
 
 	@Override
 	public DefaultCheckersBoard invertCheckersBoard() {
-		if (invertedBoard != null && invertedBoard.get() != null)
-			return invertedBoard.get();
+		BoardCache cache = BoardCache.getDefault();
+		DefaultCheckersBoard inverted = invertedBoard;
+		if (inverted != null) {
+			cache.recordHit();
+			return inverted;
+		}
 
-		DefaultCheckersBoard inverted = new DefaultCheckersBoard();
-		inverted.invertedBoard = new SoftReference<DefaultCheckersBoard>(this);
-		invertedBoard = new SoftReference<DefaultCheckersBoard>(inverted);
+		inverted = new DefaultCheckersBoard();
 		for (int i = 0; i < 32; i++)
-			inverted.board[31 - i] = invertPiece(board[i]);
+			inverted.board[31 - i] = INVERTED_PIECES[board[i]];
+		inverted.hashKey = Long.reverse(hashKey);
+		inverted.material = getInvertedMaterial(material);
+		inverted.sideToMove = sideToMove;
+
+		if (cache.isEnabled()) {
+			cache.recordMiss();
+			inverted.invertedBoard = this;
+			invertedBoard = inverted;
+			cache.add(this);
+			cache.add(inverted);
+		}
 		return inverted;
 	}
 
+	@Override
+	public int makeMove(long move) {
+		int from = getMoveFrom(move);
+		int to = getMoveTo(move);
+		int captured = getMoveCaptured(move);
+		byte side = sideToMove;
+		int undo = 0;
+
+		byte pieceType = board[from];
+		board[from] = EMPTY;
+		hashKey ^= getZobristKey(from, pieceType);
+		if (pieceType == CHECKERS[side] && isKingRow(to, side)) {
+			pieceType = KINGS[side];
+			material += MATERIAL_UNITS[pieceType]
+					- MATERIAL_UNITS[CHECKERS[side]];
+			undo |= 1 << to;
+		}
+		board[to] = pieceType;
+		hashKey ^= getZobristKey(to, pieceType);
+
+		byte opponentKing = KINGS[side ^ 1];
+		while (captured != 0) {
+			int index = Integer.numberOfTrailingZeros(captured);
+			captured &= captured - 1;
+			if (board[index] == opponentKing)
+				undo |= 1 << index;
+			hashKey ^= getZobristKey(index, board[index]);
+			material -= MATERIAL_UNITS[board[index]];
+			board[index] = EMPTY;
+		}
+
+		switchSide();
+		freeCache();
+		return undo;
+	}
+
+	@Override
+	public void unmakeMove(long move, int undo) {
+		int from = getMoveFrom(move);
+		int to = getMoveTo(move);
+		int captured = getMoveCaptured(move);
+
+		switchSide();
+		byte side = sideToMove;
+
+		byte pieceType = board[to];
+		board[to] = EMPTY;
+		hashKey ^= getZobristKey(to, pieceType);
+		if ((undo & (1 << to)) != 0) {
+			pieceType = CHECKERS[side];
+			material -= MATERIAL_UNITS[KINGS[side]]
+					- MATERIAL_UNITS[pieceType];
+		}
+		board[from] = pieceType;
+		hashKey ^= getZobristKey(from, pieceType);
+
+		byte opponentChecker = CHECKERS[side ^ 1];
+		byte opponentKing = KINGS[side ^ 1];
+		while (captured != 0) {
+			int index = Integer.numberOfTrailingZeros(captured);
+			captured &= captured - 1;
+			board[index] = (undo & (1 << index)) != 0 ? opponentKing
+					: opponentChecker;
+			hashKey ^= getZobristKey(index, board[index]);
+			material += MATERIAL_UNITS[board[index]];
+		}
+
+		freeCache();
+	}
+
 	@Override
 	protected void setPiece(int index, byte pieceType) {
 		if (index < 0 || index > 31 || pieceType == OFFBOARD)
 			return;
 
+		hashKey ^= getZobristKey(index, board[index])
+				^ getZobristKey(index, pieceType);
+		material += MATERIAL_UNITS[pieceType] - MATERIAL_UNITS[board[index]];
 		board[index] = pieceType;
 		return;
 	}
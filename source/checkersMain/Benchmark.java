@@ -6,7 +6,10 @@ import java.util.LinkedList;
 import java.util.List;
 
 import checkersBoard.BitCheckersBoard;
+import checkersBoard.BitboardCheckersBoard;
 import checkersBoard.DefaultCheckersBoard;
+import checkersSearch.Evaluator;
+import checkersSearch.SearchEngine;
 
 /**
  * A test to compare the time and space efficiencies of different
@@ -17,150 +20,66 @@ import checkersBoard.DefaultCheckersBoard;
  */
 public final class Benchmark {
 
-	public static class TestPlayer {
-		protected static int END_GAME_VALUE = 1000;
-
+	/**
+	 * A player with a fixed search depth and a simple evaluation, so every
+	 * search is the same amount of work.
+	 */
+	public static class TestPlayer implements Evaluator {
 		protected static float ENEMY_FACTOR = 1.015f;
 		protected static float KING_VALUE = 1.75f;
 		protected static float MOVES_FACTOR = 0.045f;
 		protected static float CHECKER_VALUE = 1.0f;
 
-		protected float maxSearchDepth;
-		protected float searchDepth;
+		protected int searchDepth;
+
+		protected SearchEngine engine;
 
 		public TestPlayer() {
 			searchDepth = 7;
-			maxSearchDepth = 10;
+			engine = new SearchEngine(this);
 		}
 
-		protected float evaluateBoard(CheckersBoard board, boolean max,
-				int minPlies, int maxPlies, int levels) {
-			float player1Value = 0, player2Value = 0;
-
-			for (int row = 0; row < 8; row++) {
-				for (int col = 0; col < 8; col++) {
-					byte contentsOfBoardSpace = board.getPiece(row, col);
-					switch (contentsOfBoardSpace) {
-
-					case CheckersBoard.PLAYER1_CHECKER:
-						player1Value += CHECKER_VALUE;
-						break;
-
-					case CheckersBoard.PLAYER1_KING:
-						player1Value += KING_VALUE;
-						break;
-
-					case CheckersBoard.PLAYER2_CHECKER:
-						player2Value -= CHECKER_VALUE * ENEMY_FACTOR;
-						break;
-
-					case CheckersBoard.PLAYER2_KING:
-						player2Value -= KING_VALUE * ENEMY_FACTOR;
-						break;
-					}
-				}
-			}
-
-			if (player1Value == 0)
-				return -END_GAME_VALUE + (maxPlies + minPlies);
-			else if (player2Value == 0)
-				return END_GAME_VALUE - (maxPlies + minPlies);
+		@Override
+		public float evaluate(CheckersBoard board) {
+			int material = board.getMaterial();
+			float player1Value = CHECKER_VALUE
+					* CheckersBoard.getMaterialCount(material,
+							CheckersBoard.PLAYER1_CHECKER)
+					+ KING_VALUE
+					* CheckersBoard.getMaterialCount(material,
+							CheckersBoard.PLAYER1_KING);
+			float player2Value = -ENEMY_FACTOR
+					* (CHECKER_VALUE
+							* CheckersBoard.getMaterialCount(material,
+									CheckersBoard.PLAYER2_CHECKER) + KING_VALUE
+							* CheckersBoard.getMaterialCount(material,
+									CheckersBoard.PLAYER2_KING));
 
 			float heuristicValue = player1Value + player2Value;
-
-			int maxLevels = Math.max(1, levels / 2);
-			int minLevels = Math.max(1, levels / 2);
-			if (max)
-				maxLevels++;
 			heuristicValue += MOVES_FACTOR
-					* ((float) maxPlies / maxLevels - (float) minPlies
-							/ minLevels);
+					* (board.countMoves(CheckersBoard.PLAYER1) - board
+							.countMoves(CheckersBoard.PLAYER2));
 
-			return heuristicValue;
-		}
-
-		private float getMinimaxValue(CheckersBoard board, boolean max,
-				float parentValue, int maxPlies, int minPlies,
-				int searchedDepth, int remainingSearchDepth) {
-			if (remainingSearchDepth == 0 || searchedDepth > maxSearchDepth) {
-				if (max)
-					board = board.invertCheckersBoard();
-				float value = evaluateBoard(board, max, minPlies, maxPlies,
-						searchedDepth);
-				board.freeCache();
-				return value;
-			}
-			board = board.invertCheckersBoard();
-			int numSuccessors = board.getNumSuccessors();
-
-			float value;
-			if (numSuccessors == 0) {
-				if (!max)
-					board = board.invertCheckersBoard();
-				value = evaluateBoard(board, max, minPlies, maxPlies,
-						searchedDepth);
-				board.freeCache();
-				return value;
-			} else if (numSuccessors <= 2)
-				remainingSearchDepth++;
-
-			if (max) {
-				value = Float.NEGATIVE_INFINITY;
-				maxPlies += numSuccessors;
-			} else {
-				value = Float.POSITIVE_INFINITY;
-				minPlies += numSuccessors;
-			}
-
-			for (int i = 0; i < numSuccessors; i++) {
-				CheckersBoard newBoard = board.getSuccessor(i);
-				float childValue = getMinimaxValue(newBoard, !max, value,
-						maxPlies, minPlies, searchedDepth + 1,
-						remainingSearchDepth - 1);
-
-				if (max) {
-					value = Math.max(value, childValue);
-					if (value > parentValue)
-						break;
-				} else {
-					value = Math.min(value, childValue);
-					if (value < parentValue)
-						break;
-				}
-			}
-
-			board.freeCache();
-			return value;
+			return board.getSideToMove() == CheckersBoard.PLAYER1 ? heuristicValue
+					: -heuristicValue;
 		}
 
 		public int search(CheckersBoard board) {
-			int numSuccessors = board.getNumSuccessors();
-			int change = -1;
-			if (numSuccessors <= 2)
-				change++;
-
-			int index = 0;
-			float maxValue = Float.NEGATIVE_INFINITY;
-
-			for (int i = 0; i < numSuccessors; i++) {
-				float value = getMinimaxValue(board.getSuccessor(i), false,
-						maxValue, numSuccessors, 0, 1, (int) searchDepth
-								+ change);
-				if (value > maxValue) {
-					maxValue = value;
-					index = i;
-				}
-			}
-
-			return index;
+			// Every search starts from scratch, so it is the same amount of
+			// work every time
+			engine.clearOrdering();
+			engine.search(board, searchDepth);
+			return Math.max(0, engine.getBestIndex());
 		}
 	}
 
 	public static void main(String[] args) {
 		CheckersBoard[] boards = new CheckersBoard[] {
-				new DefaultCheckersBoard(), new BitCheckersBoard() };
+				new DefaultCheckersBoard(), new BitCheckersBoard(),
+				new BitboardCheckersBoard() };
 
 		timeEfficiencyBenchmark(boards);
+		System.out.println(BoardCache.getDefault() + "\n\n\n");
 		spaceEfficiencyBenchmark(boards);
 	}
 
@@ -172,6 +91,8 @@ public final class Benchmark {
 	 * {@link SoftReference}s before it throws an {@link OutOfMemoryError}.
 	 * Sometimes the GarbageCollector may activate earlier than at the limit, so
 	 * several trials are conducted.
+	 * The number of positions that fit into a {@link LongHashSet} as
+	 * {@link PositionCodec} codes is measured the same way.
 	 * 
 	 * @param boards
 	 *            - {@link CheckersBoard}s to be tested
@@ -220,6 +141,32 @@ public final class Benchmark {
 			}
 		}
 
+		// The same positions packed into a LongHashSet. The codes are made
+		// distinct, as a set only keeps one copy of each code.
+		long code = PositionCodec.encode(boards[0]);
+		for (int j = 0; j < 3; j++) {
+			System.gc();
+
+			SoftReference<CheckersBoard> softReference = new SoftReference<CheckersBoard>(
+					boards[0].clone());
+			LongHashSet set = new LongHashSet();
+
+			int size = 0;
+			try {
+				while (softReference.get() != null) {
+					set.add(code + size);
+					size = set.size();
+				}
+			} catch (OutOfMemoryError e) {
+				// The set could not grow its table any further
+			}
+			softReference = null;
+			set = null;
+			System.gc();
+			System.out.println(String.format("%" + longest + "s", "LongHashSet")
+					+ " Size: " + size);
+		}
+
 		System.out.println("\n\n\n");
 	}
 
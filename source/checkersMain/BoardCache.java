@@ -0,0 +1,192 @@
+package checkersMain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded caching policy for the successor and inverted boards that
+ * {@link CheckersBoard}s keep. The cache holds at most {@link #getCapacity()}
+ * boards with cached boards at any time. When another board starts caching,
+ * the board that started caching the earliest has its cached boards evicted,
+ * so the memory used by caching does not depend on heap pressure. A capacity
+ * of zero disables caching, and the successor and inverted boards are then
+ * created on every request.
+ * <p>
+ * The cache counts the requests that were served from a cached board (hits)
+ * and the requests that had to create a new board (misses), which shows
+ * whether caching is paying for itself.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public final class BoardCache {
+
+	/**
+	 * The default maximum number of boards that keep cached boards.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private static final BoardCache defaultCache = new BoardCache(
+			DEFAULT_CAPACITY);
+
+	/**
+	 * Returns the cache shared by all the {@link CheckersBoard}s.
+	 * @return the shared cache
+	 */
+	public static BoardCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * The boards with cached boards, in the order they are evicted.
+	 */
+	private CheckersBoard[] boards;
+
+	private int next;
+
+	private volatile int capacity;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param capacity - the maximum number of boards that keep cached boards,
+	 *            or zero to disable caching
+	 */
+	public BoardCache(int capacity) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Adds the passed board to the boards with cached boards. If the cache is
+	 * full, the cached boards of the board that was added the earliest are
+	 * evicted. Adding a board that is already in the cache does nothing.
+	 * @param board - the board that has started caching boards
+	 */
+	public void add(CheckersBoard board) {
+		if (board.inBoardCache)
+			return;
+
+		synchronized (this) {
+			if (board.inBoardCache || boards.length == 0)
+				return;
+
+			CheckersBoard evicted = boards[next];
+			boards[next] = board;
+			board.inBoardCache = true;
+			next = (next + 1) % boards.length;
+			if (evicted != null)
+				evict(evicted);
+		}
+	}
+
+	/**
+	 * Evicts the cached boards of every board in the cache.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < boards.length; i++) {
+			if (boards[i] != null) {
+				evict(boards[i]);
+				boards[i] = null;
+			}
+		}
+		next = 0;
+	}
+
+	private void evict(CheckersBoard board) {
+		board.inBoardCache = false;
+		board.evictCache();
+		evictions.incrementAndGet();
+	}
+
+	/**
+	 * Returns the maximum number of boards that keep cached boards.
+	 * @return the capacity of the cache
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of boards whose cached boards were evicted.
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Returns the number of requests served from a cached board.
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the fraction of the requests served from a cached board.
+	 * @return the hit rate in the range [0,1]
+	 */
+	public double getHitRate() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Returns the number of requests that had to create a new board.
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns whether boards should cache their successor and inverted boards.
+	 * @return whether the capacity is greater than zero
+	 */
+	public boolean isEnabled() {
+		return capacity > 0;
+	}
+
+	public void recordHit() {
+		hits.incrementAndGet();
+	}
+
+	public void recordMiss() {
+		misses.incrementAndGet();
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counters.
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+	/**
+	 * Sets the maximum number of boards that keep cached boards. The cached
+	 * boards of every board currently in the cache are evicted.
+	 * @param capacity - the maximum number of boards that keep cached boards,
+	 *            or zero to disable caching
+	 */
+	public synchronized void setCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Negative capacity: "
+					+ capacity);
+
+		if (boards != null)
+			clear();
+		this.capacity = capacity;
+		boards = new CheckersBoard[capacity];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [capacity=" + capacity
+				+ ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + ", hitRate="
+				+ String.format("%.3f", getHitRate()) + "]";
+	}
+}
@@ -1,12 +1,24 @@
 package checkersMain;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * This class is designed to hold data on the positioning and types of Checkers
  * pieces on a CheckersBoard. It also will generate all possible plies a player
  * can make and the resulting successor CheckersBoards. Player1 is the only
  * player that can take a ply, so the board should be inverted between player
- * turns.
- * 
+ * turns. Searches can instead use {@link #getMoves(long[])} and
+ * {@link #makeMove(long)}, which follow the side to move without inverting.
+ * <p>
+ * The methods that read a board, such as {@link #getPiece(int)},
+ * {@link #getNumPlies()}, {@link #getPly(int)}, {@link #getSuccessor(int)},
+ * {@link #invertCheckersBoard()} and {@link #getMoves(long[])}, must not
+ * modify it. Implementations that cache plies or boards must publish them
+ * safely, so a board that is no longer modified can be shared by any number
+ * of threads without locking. The methods that modify a board, such as
+ * {@link #makeMove(long)} and {@link #freeCache()}, are not thread-safe.
+ *
  * @author Amos Yuen
  * @version 1.20 - 3 August 2008
  */
@@ -15,12 +27,13 @@ public abstract class CheckersBoard implements Cloneable {
 	/**
 	 * A package class for a possible ply that can be taken for a CheckersBoard.
 	 * The Ply stores its index in the CheckersBoard plyList from the method
-	 * {@link CheckersBoard#getPly(int)}. It also has an array representing the
-	 * indices of the move. The first index is always the index of the Checkers
+	 * {@link CheckersBoard#getPly(int)}. It also has the indices of the move,
+	 * packed into a long path. The first index is always the index of the Checkers
 	 * piece that will be moved. The last index is always the index of the
 	 * Checkers piece after the move. Any indices in between the first and last
 	 * indices indicate indices the Checkers piece will move to in between jumps
-	 * for a multiple-jump ply.
+	 * for a multiple-jump ply. Plies are immutable, and each simple move has a
+	 * shared instance per ply index returned by {@link #getPly(byte, long)}.
 	 * 
 	 * @see CheckersBoard#getPly(int)
 	 * 
@@ -29,6 +42,24 @@ public abstract class CheckersBoard implements Cloneable {
 	 */
 	public static final class Ply {
 
+		/*
+		 * A path is packed into a long as the starting index in bits 0-4, the
+		 * number of steps in bits 5-8, a jump flag in bit 9, and the direction
+		 * of each step in two bits each from bit 10 onwards. As a piece can
+		 * jump at most 12 pieces, every ply fits.
+		 */
+		private static final int STEPS_SHIFT = 5;
+
+		private static final long JUMP_FLAG = 1 << 9;
+
+		private static final int DIRECTIONS_SHIFT = 10;
+
+		/**
+		 * The shared instances of the simple moves, indexed by
+		 * [plyIndex][index * 4 + direction] and filled in on first use.
+		 */
+		private static final Ply[][] SIMPLE_PLIES = new Ply[MAX_MOVES][128];
+
 		/**
 		 * Inverts the passed {@link Ply}, so that the indices would be correct
 		 * if the board was inverted.
@@ -36,42 +67,154 @@ public abstract class CheckersBoard implements Cloneable {
 		 * @return the inverted {@link Ply}
 		 */
 		public static Ply getInvertedPly(Ply ply) {
-			byte[] invertedBoardIndices = new byte[ply.boardIndices.length];
-			for (int i = 0; i < invertedBoardIndices.length; i++)
-				invertedBoardIndices[i] = (byte) (31 - ply.boardIndices[i]);
-			return new Ply(ply.plyIndex, invertedBoardIndices);
+			long path = ply.path;
+			int steps = (int) (path >>> STEPS_SHIFT) & 15;
+			// Inverting swaps NORTH_WEST with SOUTH_EAST and NORTH_EAST with
+			// SOUTH_WEST, which flips the high bit of each direction
+			long directionsMask = 0;
+			for (int i = 0; i < steps; i++)
+				directionsMask |= 2L << (DIRECTIONS_SHIFT + 2 * i);
+			path = (path & ~31L) | (31 - (path & 31));
+			return getPly(ply.plyIndex, path ^ directionsMask);
+		}
+
+		/**
+		 * Returns the packed path of a simple move.
+		 * @param index - the index of the moving piece
+		 * @param direction - the direction of the move
+		 * @return the packed path of the move
+		 */
+		public static long createSimplePath(int index, byte direction) {
+			return index | (1 << STEPS_SHIFT)
+					| ((long) direction << DIRECTIONS_SHIFT);
+		}
+
+		/**
+		 * Returns the packed path of a jump-chain that has not made any jumps
+		 * yet. Jumps are added with {@link #appendStep(long, byte)}.
+		 * @param index - the index of the jumping piece
+		 * @return the packed path of the jump-chain
+		 */
+		public static long createJumpPath(int index) {
+			return index | JUMP_FLAG;
+		}
+
+		/**
+		 * Returns the passed packed path with another step in the passed
+		 * direction.
+		 * @param path - the packed path
+		 * @param direction - the direction of the step
+		 * @return the packed path including the step
+		 */
+		public static long appendStep(long path, byte direction) {
+			int steps = (int) (path >>> STEPS_SHIFT) & 15;
+			return (path + (1 << STEPS_SHIFT))
+					| ((long) direction << (DIRECTIONS_SHIFT + 2 * steps));
+		}
+
+		/**
+		 * Returns the {@link Ply} of the passed packed path. Simple moves
+		 * return a shared instance, so only jumps allocate a new {@link Ply}.
+		 * @param plyIndex - the index of the ply in its CheckersBoard
+		 * @param path - the packed path
+		 * @return the {@link Ply} of the path
+		 */
+		public static Ply getPly(byte plyIndex, long path) {
+			if ((path & JUMP_FLAG) != 0 || plyIndex < 0)
+				return new Ply(plyIndex, path);
+
+			int key = (int) (path & 31) * 4
+					+ (int) (path >>> DIRECTIONS_SHIFT & 3);
+			Ply ply = SIMPLE_PLIES[plyIndex][key];
+			if (ply == null) {
+				// Plies are immutable, so a racing thread at worst creates an
+				// equal duplicate
+				ply = new Ply(plyIndex, path);
+				SIMPLE_PLIES[plyIndex][key] = ply;
+			}
+			return ply;
 		}
 
-		private final byte[] boardIndices;
+		private final long path;
 
 		public final byte plyIndex;
 
 		public Ply(byte plyIndex, byte[] boardIndices) {
+			this(plyIndex, createPath(boardIndices));
+		}
+
+		private Ply(byte plyIndex, long path) {
 			super();
 			this.plyIndex = plyIndex;
-			this.boardIndices = boardIndices;
+			this.path = path;
+		}
+
+		private static long createPath(byte[] boardIndices) {
+			long path = boardIndices[0];
+			if (boardIndices.length > 2
+					|| JUMPED[boardIndices[0]][boardIndices[1]] >= 0)
+				path |= JUMP_FLAG;
+			byte[][] steps = (path & JUMP_FLAG) != 0 ? JUMPS : NEIGHBORS;
+
+			for (int i = 1; i < boardIndices.length; i++) {
+				byte direction = 0;
+				while (steps[boardIndices[i - 1]][direction] != boardIndices[i])
+					if (++direction == 4)
+						throw new IllegalArgumentException(
+								"Not a ply: indices " + boardIndices[i - 1]
+										+ " and " + boardIndices[i]);
+				path = appendStep(path, direction);
+			}
+			return path;
 		}
 
 		public byte get(int index) {
-			return boardIndices[index];
+			byte[][] steps = (path & JUMP_FLAG) != 0 ? JUMPS : NEIGHBORS;
+			byte boardIndex = (byte) (path & 31);
+			long directions = path >>> DIRECTIONS_SHIFT;
+			for (int i = 0; i < index; i++, directions >>>= 2)
+				boardIndex = steps[boardIndex][(int) directions & 3];
+			return boardIndex;
+		}
+
+		/**
+		 * Returns the packed path of this ply, which identifies the move
+		 * independently of its ply index.
+		 * @return the packed path
+		 */
+		public long getPath() {
+			return path;
 		}
 
 		public boolean isJump() {
-			return boardIndices.length > 2
-					|| Math.abs(boardIndices[0] - boardIndices[1]) > 5;
+			return (path & JUMP_FLAG) != 0;
 		}
 
 		public int size() {
-			return boardIndices.length;
+			return ((int) (path >>> STEPS_SHIFT) & 15) + 1;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Ply))
+				return false;
+			Ply other = (Ply) obj;
+			return plyIndex == other.plyIndex && path == other.path;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (path ^ (path >>> 32)) * 31 + plyIndex;
 		}
 
 		@Override
 		public String toString() {
 			StringBuffer strBuff = new StringBuffer(getClass().getSimpleName());
 			strBuff.append(" [");
-			for (int i = 0; i < boardIndices.length; i++) {
-				strBuff.append(boardIndices[i]);
-				if (i < boardIndices.length - 1)
+			int size = size();
+			for (int i = 0; i < size; i++) {
+				strBuff.append(get(i));
+				if (i < size - 1)
 					strBuff.append(',');
 			}
 			strBuff.append(']');
@@ -125,6 +268,368 @@ public abstract class CheckersBoard implements Cloneable {
 	//Direction constant representing SouthWest.
 	public static final byte SOUTH_WEST = 3;
 
+	/**
+	 * The order in which the directions are searched for plies. The first two
+	 * directions are the only ones available to Player1 checkers.
+	 */
+	protected static final byte[] DIRECTIONS = { NORTH_WEST, NORTH_EAST,
+			SOUTH_WEST, SOUTH_EAST };
+
+	//Side constant representing Player1, who moves up the board.
+	public static final byte PLAYER1 = 0;
+
+	//Side constant representing Player2, who moves down the board.
+	public static final byte PLAYER2 = 1;
+
+	/**
+	 * The order in which the directions are searched for the moves of each
+	 * side, indexed by [side][i]. The first two directions are the only ones
+	 * available to checkers. Player2's order mirrors Player1's, so Player2's
+	 * moves come in the same order as Player1's moves on the inverted board.
+	 */
+	protected static final byte[][] SIDE_DIRECTIONS = { DIRECTIONS,
+			{ SOUTH_EAST, SOUTH_WEST, NORTH_EAST, NORTH_WEST } };
+
+	/**
+	 * The checker piece type of each side, indexed by side.
+	 */
+	protected static final byte[] CHECKERS = { PLAYER1_CHECKER,
+			PLAYER2_CHECKER };
+
+	/**
+	 * The king piece type of each side, indexed by side.
+	 */
+	protected static final byte[] KINGS = { PLAYER1_KING, PLAYER2_KING };
+
+	/**
+	 * The neighbouring location of each board location in each direction,
+	 * indexed by [index][direction], or -1 where the neighbour is off the
+	 * board.
+	 */
+	protected static final byte[][] NEIGHBORS = new byte[32][4];
+
+	/**
+	 * The landing location of a jump from each board location in each
+	 * direction, indexed by [index][direction], or -1 where it is off the
+	 * board.
+	 */
+	protected static final byte[][] JUMPS = new byte[32][4];
+
+	/**
+	 * The location jumped when moving between two board locations, indexed by
+	 * [index][jumpIndex], or -1 if the locations are not a jump apart.
+	 */
+	protected static final byte[][] JUMPED = new byte[32][32];
+
+	static {
+		int[] rowSteps = new int[4];
+		int[] colSteps = new int[4];
+		rowSteps[NORTH_WEST] = -1;
+		colSteps[NORTH_WEST] = -1;
+		rowSteps[NORTH_EAST] = -1;
+		colSteps[NORTH_EAST] = 1;
+		rowSteps[SOUTH_EAST] = 1;
+		colSteps[SOUTH_EAST] = 1;
+		rowSteps[SOUTH_WEST] = 1;
+		colSteps[SOUTH_WEST] = -1;
+
+		for (int i = 0; i < 32; i++)
+			Arrays.fill(JUMPED[i], (byte) -1);
+
+		for (int i = 0; i < 32; i++) {
+			int row = getRow(i);
+			int col = getColumn(i);
+			for (int d = 0; d < 4; d++) {
+				int neighbor = getIndex(row + rowSteps[d], col + colSteps[d]);
+				int jump = getIndex(row + 2 * rowSteps[d], col + 2 * colSteps[d]);
+				NEIGHBORS[i][d] = (byte) neighbor;
+				JUMPS[i][d] = (byte) jump;
+				if (jump >= 0)
+					JUMPED[i][jump] = (byte) neighbor;
+			}
+		}
+	}
+
+	/**
+	 * Mask of the eight central board locations, rows 2 to 5 and columns 2
+	 * to 5.
+	 */
+	public static final int CENTER = 0x00666600;
+
+	/**
+	 * Mask of the board locations on the leftmost and rightmost columns.
+	 */
+	public static final int EDGES = 0x18181818;
+
+	/**
+	 * Mask of the rows with an even row number, whose playable locations are
+	 * on the columns 1, 3, 5 and 7.
+	 */
+	public static final int EVEN_ROWS = 0x0F0F0F0F;
+
+	/**
+	 * Mask of the rows with an odd row number, whose playable locations are
+	 * on the columns 0, 2, 4 and 6.
+	 */
+	public static final int ODD_ROWS = 0xF0F0F0F0;
+
+	/**
+	 * Mask of the board locations on the leftmost column (column 0).
+	 */
+	public static final int LEFT_EDGE = 0x10101010;
+
+	/**
+	 * Mask of the board locations on the rightmost column (column 7).
+	 */
+	public static final int RIGHT_EDGE = 0x08080808;
+
+	/**
+	 * The mask of the back rank of each side, the row its checkers start on
+	 * and the opponent's checkers are crowned on, indexed by side.
+	 */
+	public static final int[] BACK_RANKS = { 0xF0000000, 0x0000000F };
+
+	/**
+	 * Returns the mask of the neighbouring locations in the passed direction
+	 * of the board locations in the passed mask. Locations whose neighbour is
+	 * off the board are dropped. Rows with an even row number have their
+	 * playable locations one column further right than odd rows, so the
+	 * index of the neighbour depends on the parity of the row.
+	 * @param mask - a mask of board locations
+	 * @param direction - one of {@link #NORTH_WEST}, {@link #NORTH_EAST},
+	 *            {@link #SOUTH_EAST} or {@link #SOUTH_WEST}
+	 * @return the mask of the neighbouring board locations
+	 */
+	public static int shiftMask(int mask, byte direction) {
+		switch (direction) {
+		case NORTH_WEST:
+			return ((mask & EVEN_ROWS) >>> 4)
+					| ((mask & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+		case NORTH_EAST:
+			return ((mask & EVEN_ROWS & ~RIGHT_EDGE) >>> 3)
+					| ((mask & ODD_ROWS) >>> 4);
+		case SOUTH_EAST:
+			return ((mask & EVEN_ROWS & ~RIGHT_EDGE) << 5)
+					| ((mask & ODD_ROWS) << 4);
+		case SOUTH_WEST:
+			return ((mask & EVEN_ROWS) << 4)
+					| ((mask & ODD_ROWS & ~LEFT_EDGE) << 3);
+		}
+		return 0;
+	}
+
+	/**
+	 * The size a move buffer passed to {@link #getMoves(long[])} should have
+	 * to be able to hold the moves of any position.
+	 */
+	public static final int MAX_MOVES = 128;
+
+	/**
+	 * Packs a move into a long for {@link #getMoves(long[])}. The lower 32
+	 * bits hold the mask of the captured board locations (bit <i>i</i> being
+	 * board index <i>i</i>), followed by 5 bits for the starting index and 5
+	 * bits for the final index of the moved piece.
+	 * @param from - the index of the Checkers piece that will be moved
+	 * @param to - the index of the Checkers piece after the move
+	 * @param captured - the mask of the board locations of the jumped pieces
+	 * @return the packed move
+	 */
+	public static long createMove(int from, int to, int captured) {
+		return (captured & 0xFFFFFFFFL) | ((long) from << 32)
+				| ((long) to << 37);
+	}
+
+	/**
+	 * Returns the mask of the board locations jumped by the packed move.
+	 * @see #createMove(int, int, int)
+	 * @param move - a move packed by {@link #createMove(int, int, int)}
+	 * @return the mask of the captured board locations, zero if not a jump
+	 */
+	public static int getMoveCaptured(long move) {
+		return (int) move;
+	}
+
+	/**
+	 * Returns the starting index of the piece moved by the packed move.
+	 * @see #createMove(int, int, int)
+	 * @param move - a move packed by {@link #createMove(int, int, int)}
+	 * @return the index of the Checkers piece that will be moved
+	 */
+	public static int getMoveFrom(long move) {
+		return (int) (move >>> 32) & 31;
+	}
+
+	/**
+	 * Returns the final index of the piece moved by the packed move.
+	 * @see #createMove(int, int, int)
+	 * @param move - a move packed by {@link #createMove(int, int, int)}
+	 * @return the index of the Checkers piece after the move
+	 */
+	public static int getMoveTo(long move) {
+		return (int) (move >>> 37) & 31;
+	}
+
+	/**
+	 * Returns the packed move translated to the inverted board, on which
+	 * board location <i>i</i> becomes location 31 - <i>i</i>. Translating a
+	 * move twice returns the move.
+	 * @see #invertCheckersBoard()
+	 * @param move - a move packed by {@link #createMove(int, int, int)}
+	 * @return the corresponding move on the inverted board
+	 */
+	public static long invertMove(long move) {
+		return createMove(31 - getMoveFrom(move), 31 - getMoveTo(move),
+				Integer.reverse(getMoveCaptured(move)));
+	}
+
+	/**
+	 * Returns whether the packed move is a jump.
+	 * @see #createMove(int, int, int)
+	 * @param move - a move packed by {@link #createMove(int, int, int)}
+	 * @return whether the move captures any pieces
+	 */
+	public static boolean isJump(long move) {
+		return (int) move != 0;
+	}
+
+	/**
+	 * The Zobrist keys of each piece type on each board location, indexed by
+	 * [pieceType][index]. {@link #EMPTY} locations have a key of zero. The
+	 * keys of Player2 pieces are the bit reversal of the keys of the
+	 * corresponding Player1 pieces on the inverted board location, so the
+	 * hash key of an inverted board is the bit reversal of the hash key.
+	 */
+	private static final long[][] ZOBRIST_KEYS = new long[5][32];
+
+	static {
+		// A fixed seed keeps the hash keys stable between runs
+		Random random = new Random(0x5EED5EEDL);
+		for (int i = 0; i < 32; i++) {
+			ZOBRIST_KEYS[PLAYER1_CHECKER][i] = random.nextLong();
+			ZOBRIST_KEYS[PLAYER1_KING][i] = random.nextLong();
+		}
+		for (int i = 0; i < 32; i++) {
+			ZOBRIST_KEYS[PLAYER2_CHECKER][31 - i] = Long
+					.reverse(ZOBRIST_KEYS[PLAYER1_CHECKER][i]);
+			ZOBRIST_KEYS[PLAYER2_KING][31 - i] = Long
+					.reverse(ZOBRIST_KEYS[PLAYER1_KING][i]);
+		}
+	}
+
+	/**
+	 * The hash key of the board at the start of a checkers game.
+	 */
+	protected static final long INITIAL_HASH_KEY;
+
+	static {
+		long key = 0;
+		for (int i = 0; i < 12; i++)
+			key ^= ZOBRIST_KEYS[PLAYER2_CHECKER][i]
+					^ ZOBRIST_KEYS[PLAYER1_CHECKER][31 - i];
+		INITIAL_HASH_KEY = key;
+	}
+
+	/**
+	 * The Zobrist key XORed into the hash key while it is Player2's turn. Its
+	 * bit reversal is itself, so inverting a board keeps the relation between
+	 * the hash keys.
+	 */
+	protected static final long SIDE_TO_MOVE_KEY;
+
+	static {
+		int half = new Random(0x51DE51DEL).nextInt();
+		SIDE_TO_MOVE_KEY = (long) half << 32
+				| (Integer.reverse(half) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the Zobrist key of the passed piece type on the passed board
+	 * location. The hash key of a board is the XOR of the keys of all its
+	 * locations, so implementations update it with
+	 * {@code hashKey ^= getZobristKey(index, oldType) ^ getZobristKey(index, newType)}
+	 * whenever a location changes.
+	 * @param index - board location in the range [0,31]
+	 * @param pieceType - one of {@link #PLAYER1_CHECKER}, {@link #PLAYER1_KING},
+	 *            {@link #PLAYER2_CHECKER}, {@link #PLAYER2_KING}, or {@link #EMPTY}
+	 * @return the Zobrist key of the piece type on the board location
+	 */
+	protected static long getZobristKey(int index, byte pieceType) {
+		return ZOBRIST_KEYS[pieceType][index];
+	}
+
+	/**
+	 * The amount added to a material summary by a piece of each piece type,
+	 * indexed by piece type. A material summary holds the number of pieces of
+	 * each piece type in 8 bits, starting with {@link #PLAYER1_CHECKER} in the
+	 * lowest 8 bits and ending with {@link #PLAYER2_KING} in the highest, so
+	 * implementations update it with
+	 * {@code material += MATERIAL_UNITS[newType] - MATERIAL_UNITS[oldType]}
+	 * whenever a location changes.
+	 * @see #getMaterial()
+	 */
+	protected static final int[] MATERIAL_UNITS = { 0, 1, 1 << 8, 1 << 16,
+			1 << 24 };
+
+	/**
+	 * The material summary of the board at the start of a checkers game.
+	 */
+	protected static final int INITIAL_MATERIAL = 12
+			* MATERIAL_UNITS[PLAYER1_CHECKER] + 12
+			* MATERIAL_UNITS[PLAYER2_CHECKER];
+
+	/**
+	 * Returns the material summary of the inverted board, which swaps the
+	 * counts of the two players.
+	 * @see #getMaterial()
+	 * @param material - a material summary
+	 * @return the material summary of the inverted board
+	 */
+	public static int getInvertedMaterial(int material) {
+		return Integer.rotateLeft(material, 16);
+	}
+
+	/**
+	 * Returns the number of pieces of the passed piece type in a material
+	 * summary.
+	 * @see #getMaterial()
+	 * @param material - a material summary
+	 * @param pieceType - one of {@link #PLAYER1_CHECKER}, {@link #PLAYER1_KING},
+	 *        {@link #PLAYER2_CHECKER}, {@link #PLAYER2_KING}, or {@link #EMPTY}
+	 * @return the number of pieces of piece type
+	 */
+	public static int getMaterialCount(int material, byte pieceType) {
+		if (pieceType == EMPTY)
+			return 32 - getMaterialPieces(material, PLAYER1)
+					- getMaterialPieces(material, PLAYER2);
+		if (pieceType < PLAYER1_CHECKER || pieceType > PLAYER2_KING)
+			return 0;
+		return material >>> ((pieceType - 1) << 3) & 0xFF;
+	}
+
+	/**
+	 * Returns the number of checkers and kings of the passed side in a
+	 * material summary.
+	 * @see #getMaterial()
+	 * @param material - a material summary
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of pieces owned by the side
+	 */
+	public static int getMaterialPieces(int material, byte side) {
+		int counts = material >>> (side << 4);
+		return (counts & 0xFF) + (counts >>> 8 & 0xFF);
+	}
+
+	/**
+	 * Returns whether a checker of the passed side is crowned on the passed
+	 * board location.
+	 * @param index - board location in the range [0,31]
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return whether the location is on the side's king row
+	 */
+	protected static boolean isKingRow(int index, byte side) {
+		return side == PLAYER1 ? index < 4 : index > 27;
+	}
+
 	/**
 	 * Applies the passed {@link Ply} to this board to get the resulting
 	 * successor board.
@@ -158,17 +663,8 @@ public abstract class CheckersBoard implements Cloneable {
 	 * @return void
 	 */
 	public static void jumpOrMultipleJumps(Ply ply, CheckersBoard board){
-		boolean rightShiftedRow = ply.get(0) / 4 % 2 == 0;
-
-		for (byte i = 0; i < ply.size() - 1; i++) {
-			byte index = ply.get(i);
-			byte nextIndex = ply.get(i + 1);
-			int jumpedIndex = index + nextIndex;
-			if (rightShiftedRow)
-				jumpedIndex++;
-			jumpedIndex /= 2;
-			board.setPiece(jumpedIndex, EMPTY);
-		}
+		for (byte i = 0; i < ply.size() - 1; i++)
+			board.setPiece(JUMPED[ply.get(i)][ply.get(i + 1)], EMPTY);
 	}
 
 	/**
@@ -225,41 +721,47 @@ public abstract class CheckersBoard implements Cloneable {
 	/**
 	 * Returns the index of the neighbouring board location in the passed
 	 * direction from the passed starting index. If the location is off the
-	 * board, an invalid index will be returned.
+	 * board, -1 will be returned.
 	 * @param index - board location in the range [0,31] (top-left corner being
 	 *            zero and bottom-right corner being 31. The index increases
 	 *            from left-to-right first, then from top-to-bottom)
 	 * @param direction - one of {@link #NORTH_WEST}, {@link #NORTH_EAST},
 	 *            {@link #SOUTH_WEST}, or {@link #SOUTH_EAST}
 	 * @return the location of the neighbouring board location
+	 * @see #NEIGHBORS
 	 */
 	public static byte getNeighborIndex(byte index, byte direction) {
-		switch (direction) {
-		case (NORTH_WEST):
-			if (index / 4 % 2 == 0)
-				return (byte) (index - 4);
-			if (index % 4 != 0)
-				return (byte) (index - 5);
+		if (index < 0 || index > 31 || direction < 0 || direction > 3)
 			return -1;
-		case (NORTH_EAST):
-			if (index / 4 % 2 == 1)
-				return (byte) (index - 4);
-			if (index % 4 != 3)
-				return (byte) (index - 3);
-		case (SOUTH_EAST):
-			if (index / 4 % 2 == 1)
-				return (byte) (index + 4);
-			if (index % 4 != 3)
-				return (byte) (index + 5);
+		return NEIGHBORS[index][direction];
+	}
+
+	/**
+	 * Returns the index of the board location two steps away in the passed
+	 * direction from the passed starting index, which is where a piece lands
+	 * after jumping the neighbouring location.
+	 * @param index - board location in the range [0,31]
+	 * @param direction - one of {@link #NORTH_WEST}, {@link #NORTH_EAST},
+	 *            {@link #SOUTH_WEST}, or {@link #SOUTH_EAST}
+	 * @return the landing location of the jump, or -1 if it is off the board
+	 */
+	public static byte getJumpIndex(byte index, byte direction) {
+		if (index < 0 || index > 31 || direction < 0 || direction > 3)
 			return -1;
-		case (SOUTH_WEST):
-			if (index / 4 % 2 == 0)
-				return (byte) (index + 4);
-			if (index % 4 != 0)
-				return (byte) (index + 3);
+		return JUMPS[index][direction];
+	}
+
+	/**
+	 * Returns the index of the board location jumped by a piece jumping from
+	 * one index to another.
+	 * @param index - the starting board location in the range [0,31]
+	 * @param jumpIndex - the landing board location in the range [0,31]
+	 * @return the jumped location, or -1 if the locations are not a jump apart
+	 */
+	public static byte getJumpedIndex(byte index, byte jumpIndex) {
+		if (index < 0 || index > 31 || jumpIndex < 0 || jumpIndex > 31)
 			return -1;
-		}
-		return -1;
+		return JUMPED[index][jumpIndex];
 	}
 
 	/**
@@ -318,6 +820,26 @@ public abstract class CheckersBoard implements Cloneable {
 		return pieceType;
 	}
 
+	/**
+	 * The 64-bit Zobrist hash key of this board. Implementations must keep it
+	 * up to date whenever a board location changes.
+	 * @see #getZobristKey(int, byte)
+	 */
+	protected long hashKey;
+
+	/**
+	 * The side whose turn it is, either {@link #PLAYER1} or {@link #PLAYER2}.
+	 * It is switched by {@link #makeMove(long)}, so a search can walk the
+	 * tree without inverting the board.
+	 */
+	protected byte sideToMove = PLAYER1;
+
+	/**
+	 * Whether this board is one of the boards with cached boards in the
+	 * {@link BoardCache}.
+	 */
+	volatile boolean inBoardCache;
+
 	// Default Constructor
 	public CheckersBoard() {
 		;
@@ -332,7 +854,8 @@ public abstract class CheckersBoard implements Cloneable {
 
 	/**
 	 * Returns whether the pieces in each index of this board matches the pieces
-	 * in each corresponding index of the other board.
+	 * in each corresponding index of the other board, and it is the same side's
+	 * turn on both boards.
 	 * @see #PLAYER1_CHECKER
 	 * @see #PLAYER1_KING
 	 * @see #PLAYER2_CHECKER
@@ -343,6 +866,10 @@ public abstract class CheckersBoard implements Cloneable {
 	 * @return whether the boards are equal
 	 */
 	public boolean equals(CheckersBoard other) {
+		if (other == null || this.hashKey != other.hashKey
+				|| this.sideToMove != other.sideToMove)
+			return false;
+
 		for (int i = 0; i < 32; i++)
 			if (this.getPiece(i) != other.getPiece(i))
 				return false;
@@ -350,28 +877,539 @@ public abstract class CheckersBoard implements Cloneable {
 		return true;
 	}
 
+	/**
+	 * Returns whether the passed object is a CheckersBoard with the same
+	 * pieces in each index as this board.
+	 * @see #equals(CheckersBoard)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof CheckersBoard && equals((CheckersBoard) obj);
+	}
+
 	// Frees any caching.
 	public void freeCache() {
 	}
 
+	/**
+	 * Drops the references to any cached successor and inverted boards. It is
+	 * called by the {@link BoardCache} when this board is evicted, possibly
+	 * from another thread, so it must not touch any other state.
+	 * Implementations that cache boards should override this method and add
+	 * themselves to {@link BoardCache#getDefault()} when they start caching.
+	 */
+	protected void evictCache() {
+	}
+
 	/**
 	 * Counts the number of pieces of the passed piece type in this
-	 * CheckersBoard
+	 * CheckersBoard. It takes constant time if the implementation keeps
+	 * track of its material, see {@link #getMaterial()}.
 	 * @param pieceType - one of {@link #PLAYER1_CHECKER}, {@link #PLAYER1_KING},
 	 *        {@link #PLAYER2_CHECKER}, {@link #PLAYER2_KING}, or {@link #EMPTY}
 	 * @return the number of pieces of piece type in this CheckersBoard
 	 */
 	public int getCount(byte pieceType) {
-		if (pieceType == OFFBOARD)
-			return 0;
+		return getMaterialCount(getMaterial(), pieceType);
+	}
+
+	/**
+	 * Returns the material summary of this board, the number of checkers and
+	 * kings of each player packed into an int. The counts are read with
+	 * {@link #getMaterialCount(int, byte)} and
+	 * {@link #getMaterialPieces(int, byte)}, so an evaluation function can get
+	 * all of them with one call. This implementation scans the board;
+	 * implementations should override it to return the material in constant
+	 * time, by keeping it up to date or by counting the bits of their masks.
+	 * @see #MATERIAL_UNITS
+	 * @return the material summary of this board
+	 */
+	public int getMaterial() {
+		int material = 0;
+		for (int i = 0; i < 32; i++)
+			material += MATERIAL_UNITS[getPiece(i)];
+		return material;
+	}
+
+	/**
+	 * Returns the number of checkers and kings of the passed side.
+	 * @see #getMaterial()
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of pieces owned by the side
+	 */
+	public int getPieceCount(byte side) {
+		return getMaterialPieces(getMaterial(), side);
+	}
+
+	/**
+	 * Writes every possible move of the side to move into the passed buffer as
+	 * a packed long (see {@link #createMove(int, int, int)}) and returns the
+	 * number of moves.
+	 * @see #getMoves(long[], byte)
+	 * @see #getSideToMove()
+	 * @param moves - the buffer the moves are written to; it should have a
+	 *            length of at least {@link #MAX_MOVES}
+	 * @return the number of moves written into the buffer
+	 */
+	public int getMoves(long[] moves) {
+		return getMoves(moves, sideToMove);
+	}
 
+	/**
+	 * Writes every possible move of the passed side into the passed buffer as
+	 * a packed long (see {@link #createMove(int, int, int)}) and returns the
+	 * number of moves. Player1's moves are written in the same order as the
+	 * plies returned from {@link #getPly(int)}, so the move at index <i>i</i>
+	 * corresponds to the ply and successor at index <i>i</i>. Player2's moves
+	 * are written in the order of Player1's moves on the inverted board.
+	 * <p>
+	 * Unlike {@link #getPly(int)}, this method does not allocate or cache
+	 * anything, so a search can reuse one buffer for every node.
+	 * @param moves - the buffer the moves are written to; it should have a
+	 *            length of at least {@link #MAX_MOVES}
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of moves written into the buffer
+	 */
+	public int getMoves(long[] moves, byte side) {
+		int count = getCaptures(moves, side);
+		if (count != 0)
+			return count;
+
+		int pieces = getMovers(side);
+		while (pieces != 0) {
+			int index = getNextPiece(pieces, side);
+			pieces &= ~(1 << index);
+			count = getPieceMoves(index, false, moves, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes every jump of the side to move into the passed buffer and
+	 * returns the number of jumps.
+	 * @see #getCaptures(long[], byte)
+	 * @param moves - the buffer the jumps are written to; it should have a
+	 *            length of at least {@link #MAX_MOVES}
+	 * @return the number of jumps written into the buffer
+	 */
+	public int getCaptures(long[] moves) {
+		return getCaptures(moves, sideToMove);
+	}
+
+	/**
+	 * Writes every jump of the passed side into the passed buffer and returns
+	 * the number of jumps. The simple moves are never generated, so a
+	 * quiescence search can use it to only follow the captures. As jumps are
+	 * forced, the jumps are all of the side's moves if there are any, in the
+	 * same order as in {@link #getMoves(long[], byte)}.
+	 * @param moves - the buffer the jumps are written to; it should have a
+	 *            length of at least {@link #MAX_MOVES}
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of jumps written into the buffer
+	 */
+	public int getCaptures(long[] moves, byte side) {
+		int count = 0;
+		int pieces = getJumpers(side);
+		while (pieces != 0) {
+			int index = getNextPiece(pieces, side);
+			pieces &= ~(1 << index);
+			count = getPieceMoves(index, true, moves, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns whether the side to move can jump, which means that it has to.
+	 * @see #hasCapture(byte)
+	 * @return whether the side to move can jump
+	 */
+	public boolean hasCapture() {
+		return hasCapture(sideToMove);
+	}
+
+	/**
+	 * Returns whether the passed side can jump. It only looks for a single
+	 * jump and does not generate any moves, so it is much cheaper than
+	 * {@link #getCaptures(long[], byte)} and can be used at every leaf of a
+	 * search.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return whether the side can jump
+	 */
+	public boolean hasCapture(byte side) {
+		return getJumpers(side) != 0;
+	}
+
+	/**
+	 * Returns the number of moves of the side to move.
+	 * @see #countMoves(byte)
+	 * @return the number of moves of the side to move
+	 */
+	public int countMoves() {
+		return countMoves(sideToMove);
+	}
+
+	/**
+	 * Returns the number of moves of the passed side, which is the number of
+	 * moves {@link #getMoves(long[], byte)} would write, without creating any
+	 * plies or successor boards. The simple moves are counted from the
+	 * neighbouring locations of the pieces, and the jump-chains are followed
+	 * without being written anywhere, so a mobility term of an evaluation
+	 * allocates nothing.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of moves of the side
+	 */
+	public int countMoves(byte side) {
+		int jumpers = getJumpers(side);
+		if (jumpers == 0)
+			return countSimpleMoves(side);
+
+		int count = 0;
+		while (jumpers != 0) {
+			int index = Integer.numberOfTrailingZeros(jumpers);
+			jumpers &= jumpers - 1;
+			count = getPieceMoves(index, true, null, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of simple moves of the passed side, ignoring whether
+	 * a jump is forced.
+	 * @see #countMoves(byte)
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the number of simple moves of the side
+	 */
+	protected int countSimpleMoves(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
 		int count = 0;
+		int pieces = getMovers(side);
+		while (pieces != 0) {
+			int index = Integer.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			int numDirections = getPiece(index) == KINGS[side] ? 4 : 2;
+			for (int d = 0; d < numDirections; d++)
+				if (getPiece(NEIGHBORS[index][directions[d]]) == EMPTY)
+					count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the mask of the pieces of the passed side that can jump, bit
+	 * <i>i</i> being board index <i>i</i>. Jumps are forced, so if the mask is
+	 * not zero only these pieces can move.
+	 * @see #getPieceMoves(int, boolean, long[], int)
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the pieces that can jump
+	 */
+	public int getJumpers(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		byte opponent = (byte) (side ^ 1);
+		int jumpers = 0;
+		for (int i = 0; i < 32; i++) {
+			byte pieceType = getPiece(i);
+			if (pieceType != CHECKERS[side] && pieceType != KINGS[side])
+				continue;
+
+			int numDirections = pieceType == KINGS[side] ? 4 : 2;
+			for (int d = 0; d < numDirections; d++) {
+				byte neighborContents = getPiece(NEIGHBORS[i][directions[d]]);
+				if ((neighborContents == CHECKERS[opponent] || neighborContents == KINGS[opponent])
+						&& getPiece(JUMPS[i][directions[d]]) == EMPTY) {
+					jumpers |= 1 << i;
+					break;
+				}
+			}
+		}
+		return jumpers;
+	}
+
+	/**
+	 * Returns the mask of the pieces of the passed side that can make a simple
+	 * move, bit <i>i</i> being board index <i>i</i>. The simple moves are only
+	 * possible if none of the side's pieces can jump.
+	 * @see #getJumpers(byte)
+	 * @see #getPieceMoves(int, boolean, long[], int)
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the pieces that can make a simple move
+	 */
+	public int getMovers(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int movers = 0;
+		for (int i = 0; i < 32; i++) {
+			byte pieceType = getPiece(i);
+			if (pieceType != CHECKERS[side] && pieceType != KINGS[side])
+				continue;
+
+			int numDirections = pieceType == KINGS[side] ? 4 : 2;
+			for (int d = 0; d < numDirections; d++) {
+				if (getPiece(NEIGHBORS[i][directions[d]]) == EMPTY) {
+					movers |= 1 << i;
+					break;
+				}
+			}
+		}
+		return movers;
+	}
+
+	/**
+	 * Writes the jumps or the simple moves of the piece at the passed index
+	 * into the passed buffer, in the order they have in
+	 * {@link #getMoves(long[], byte)}. Together with
+	 * {@link #getJumpers(byte)} and {@link #getMovers(byte)} it lets a search
+	 * generate the moves of one piece at a time, see {@link MoveIterator}.
+	 * @param index - the board index of the piece
+	 * @param jumps - whether to write the jumps or the simple moves of the
+	 *            piece
+	 * @param moves - the buffer the moves are written to, or null to only
+	 *            count them
+	 * @param count - the number of moves already in the buffer
+	 * @return the number of moves in the buffer
+	 */
+	public int getPieceMoves(int index, boolean jumps, long[] moves, int count) {
+		byte pieceType = getPiece(index);
+		if (pieceType == EMPTY || pieceType == OFFBOARD)
+			return count;
+
+		byte side = pieceType == PLAYER1_CHECKER || pieceType == PLAYER1_KING ? PLAYER1
+				: PLAYER2;
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int numDirections = pieceType == KINGS[side] ? 4 : 2;
+		if (jumps)
+			return findJumpMoves((byte) index, (byte) index, directions,
+					numDirections, (byte) (side ^ 1), 0, moves, count);
+
+		for (int d = 0; d < numDirections; d++) {
+			byte neighborIndex = NEIGHBORS[index][directions[d]];
+			if (getPiece(neighborIndex) == EMPTY) {
+				if (moves != null)
+					moves[count] = createMove(index, neighborIndex, 0);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the mask of the pieces of the passed side, bit <i>i</i> being
+	 * board index <i>i</i>.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the side's pieces
+	 */
+	public int getPieces(byte side) {
+		int pieces = 0;
+		for (int i = 0; i < 32; i++) {
+			byte pieceType = getPiece(i);
+			if (pieceType == CHECKERS[side] || pieceType == KINGS[side])
+				pieces |= 1 << i;
+		}
+		return pieces;
+	}
+
+	/**
+	 * Returns the mask of the kings of the passed side, bit <i>i</i> being
+	 * board index <i>i</i>.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the side's kings
+	 */
+	public int getKings(byte side) {
+		int kings = 0;
 		for (int i = 0; i < 32; i++)
-			if (getPiece(i) == pieceType)
+			if (getPiece(i) == KINGS[side])
+				kings |= 1 << i;
+		return kings;
+	}
+
+	/**
+	 * Returns the mask of the board locations attacked by the passed side: the
+	 * locations a piece of the side could jump over, because the piece is next
+	 * to it in one of its directions and the location behind it is empty. An
+	 * opponent piece on an attacked location can be captured, and an
+	 * opponent piece moving onto one can be captured unless the move empties
+	 * the landing location.
+	 * @see #getCapturable(byte)
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the attacked board locations
+	 */
+	public int getAttacked(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		int pieces = getPieces(side);
+		int kings = getKings(side);
+		int empty = ~(pieces | getPieces((byte) (side ^ 1)));
+		int attacked = 0;
+		// Checkers only jump in the first two directions
+		for (int i = 0; i < 4; i++) {
+			byte direction = directions[i];
+			attacked |= shiftMask(i < 2 ? pieces : kings, direction)
+					& shiftMask(empty, (byte) (direction ^ 2));
+		}
+		return attacked;
+	}
+
+	/**
+	 * Returns the mask of the pieces of the passed side that the opponent
+	 * could capture with a jump if it was the opponent's turn. Only the first
+	 * jump of a jump-chain is considered.
+	 * @see #getAttacked(byte)
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the side's pieces that are under attack
+	 */
+	public int getCapturable(byte side) {
+		return getPieces(side) & getAttacked((byte) (side ^ 1));
+	}
+
+	/**
+	 * Returns the mask of the checkers of the passed side that are still on
+	 * its {@link #BACK_RANKS back rank}, guarding it against the opponent's
+	 * checkers being crowned.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the side's back rank guards
+	 */
+	public int getBackRankGuards(byte side) {
+		return getPieces(side) & ~getKings(side) & BACK_RANKS[side];
+	}
+
+	/**
+	 * Returns the mask of the runaway checkers of the passed side: the
+	 * checkers with a path of empty board locations to their king row. The
+	 * path is found by spreading the empty king row locations backwards over
+	 * the empty locations, one row at a time. Whether the opponent can move
+	 * into the path in time is not considered.
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the mask of the side's runaway checkers
+	 */
+	public int getRunaways(byte side) {
+		byte[] directions = SIDE_DIRECTIONS[side];
+		byte back1 = (byte) (directions[0] ^ 2);
+		byte back2 = (byte) (directions[1] ^ 2);
+		int empty = ~(getPieces(PLAYER1) | getPieces(PLAYER2));
+
+		int path = empty & BACK_RANKS[side ^ 1];
+		for (int row = 0; row < 6; row++)
+			path |= (shiftMask(path, back1) | shiftMask(path, back2)) & empty;
+		return getPieces(side) & ~getKings(side)
+				& (shiftMask(path, back1) | shiftMask(path, back2));
+	}
+
+	/**
+	 * Returns the index of the piece in the passed mask that comes first in
+	 * the move order of the passed side. Player1's pieces are visited in
+	 * ascending and Player2's in descending index order.
+	 * @param pieces - a non-zero mask of pieces
+	 * @param side - one of {@link #PLAYER1} or {@link #PLAYER2}
+	 * @return the board index of the next piece
+	 */
+	protected static int getNextPiece(int pieces, byte side) {
+		return side == PLAYER1 ? Integer.numberOfTrailingZeros(pieces)
+				: 31 - Integer.numberOfLeadingZeros(pieces);
+	}
+
+	/**
+	 * Writes every jump-chain continuing from the passed index into the move
+	 * buffer. The board is not modified; the starting location and the jumped
+	 * pieces are treated as empty for the rest of the chain instead.
+	 * @param origin - the index where the jump-chain started
+	 * @param index - the current index of the jumping piece
+	 * @param directions - the directions of the moving side, one of
+	 *            {@link #SIDE_DIRECTIONS}
+	 * @param numDirections - the number of directions the piece can move in
+	 * @param opponent - the side whose pieces can be jumped
+	 * @param captured - the mask of the pieces jumped so far
+	 * @param moves - the buffer the moves are written to, or null to only
+	 *            count them
+	 * @param count - the number of moves already in the buffer
+	 * @return the number of moves in the buffer after the search
+	 */
+	private int findJumpMoves(byte origin, byte index, byte[] directions,
+			int numDirections, byte opponent, int captured, long[] moves,
+			int count) {
+		for (int d = 0; d < numDirections; d++) {
+			byte neighborIndex = NEIGHBORS[index][directions[d]];
+			byte neighborContents = getPiece(neighborIndex);
+			if ((neighborContents != CHECKERS[opponent] && neighborContents != KINGS[opponent])
+					|| (captured & (1 << neighborIndex)) != 0)
+				continue;
+
+			byte neighborTwoIndex = JUMPS[index][directions[d]];
+			byte landingContents = getPiece(neighborTwoIndex);
+			if (landingContents == OFFBOARD
+					|| (landingContents != EMPTY && neighborTwoIndex != origin
+							&& (captured & (1 << neighborTwoIndex)) == 0))
+				continue;
+
+			int newCaptured = captured | (1 << neighborIndex);
+			int next = findJumpMoves(origin, neighborTwoIndex, directions,
+					numDirections, opponent, newCaptured, moves, count);
+			// If no more jumps are found add the move
+			if (next == count) {
+				if (moves != null)
+					moves[count] = createMove(origin, neighborTwoIndex,
+							newCaptured);
 				count++;
+			} else
+				count = next;
+		}
 		return count;
 	}
 
+	/**
+	 * Returns the 64-bit Zobrist hash key of this board. Equal boards have
+	 * equal hash keys regardless of their implementation, and the key does
+	 * not change between runs, so it can be used as a compact position key
+	 * for caches and tables. The key of the inverted board is
+	 * {@code Long.reverse(getHashKey())}.
+	 * @return the hash key of this board
+	 */
+	public long getHashKey() {
+		return hashKey;
+	}
+
+	/**
+	 * Returns the canonical hash key of this position, which is the same for
+	 * this board and its colour reversed twin: the
+	 * {@link #invertCheckersBoard() inverted} board with the other side to
+	 * move. Both are the same position for the side to move, so caches keyed
+	 * by the canonical key hold each position once whichever colour reached
+	 * it. The canonical form is the one with Player1 to move, so the key is
+	 * the {@link #getHashKey()} of boards with Player1 to move.
+	 * @see #isCanonicalInverted()
+	 * @return the canonical hash key of this position
+	 */
+	public long getCanonicalKey() {
+		if (sideToMove == PLAYER1)
+			return hashKey;
+		return Long.reverse(hashKey ^ SIDE_TO_MOVE_KEY);
+	}
+
+	/**
+	 * Returns whether the canonical form of this position is the inverted
+	 * board. Moves stored with a canonical key have to be translated back with
+	 * {@link #invertMove(long)} if it is. Scores from the point of view of
+	 * the side to move need no translation, while scores from Player1's point
+	 * of view have to be negated.
+	 * @see #getCanonicalKey()
+	 * @return whether the canonical form is the inverted board
+	 */
+	public boolean isCanonicalInverted() {
+		return sideToMove == PLAYER2;
+	}
+
+	/**
+	 * Returns the side whose turn it is on this board. The plies and successor
+	 * boards always assume it's Player1's turn, but
+	 * {@link #getMoves(long[])} and {@link #makeMove(long)} follow the side to
+	 * move.
+	 * @return one of {@link #PLAYER1} or {@link #PLAYER2}
+	 */
+	public byte getSideToMove() {
+		return sideToMove;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hashKey ^ (hashKey >>> 32));
+	}
+
 	/**
 	 * Returns the number of possible plies, which should correspond with the
 	 * number of successor boards. This method should return the same value as
@@ -439,7 +1477,8 @@ public abstract class CheckersBoard implements Cloneable {
 	 * Creates a new board and it switches Player2 and Player1 pieces and up and
 	 * down directions, effectively allowing it to always be "PLAYER1's turn"
 	 * and Player1 to always be moving "up" even as play alternates between two
-	 * players. The inverted CheckersBoard will be cached.
+	 * players. The inverted CheckersBoard keeps the side to move of this board,
+	 * and it will be cached.
 	 * 
 	 * Note: this method in combination with the caching of successor boards can
 	 * cause memory to not be released. Use the freeCache() method to help with
@@ -448,6 +1487,52 @@ public abstract class CheckersBoard implements Cloneable {
 	 */
 	public abstract CheckersBoard invertCheckersBoard();
 
+	/**
+	 * Applies the passed move of the side to move to this board in place and
+	 * then switches the side to move. The board is not inverted, so a search
+	 * stays in the perspective of the board it started from. The move is
+	 * reverted with {@link #unmakeMove(long, int)}, which lets a search walk the
+	 * whole tree on a single board instead of creating a board for every node.
+	 * <p>
+	 * Note: this method modifies the board, so it should only be called on a
+	 * board owned by the caller, e.g. a {@link #clone()} of the board passed
+	 * to a player.
+	 * @see #getMoves(long[])
+	 * @param move - a move returned from {@link #getMoves(long[])} for this
+	 *            board
+	 * @return the undo token to be passed to {@link #unmakeMove(long, int)}.
+	 *         It is the mask of the captured kings, with the bit of the final
+	 *         index of the move set if the moved checker was crowned.
+	 */
+	public int makeMove(long move) {
+		int from = getMoveFrom(move);
+		int to = getMoveTo(move);
+		int captured = getMoveCaptured(move);
+		byte side = sideToMove;
+		int undo = 0;
+
+		byte pieceType = getPiece(from);
+		setPiece(from, EMPTY);
+		if (pieceType == CHECKERS[side] && isKingRow(to, side)) {
+			pieceType = KINGS[side];
+			undo |= 1 << to;
+		}
+		setPiece(to, pieceType);
+
+		byte opponentKing = KINGS[side ^ 1];
+		while (captured != 0) {
+			int index = Integer.numberOfTrailingZeros(captured);
+			captured &= captured - 1;
+			if (getPiece(index) == opponentKing)
+				undo |= 1 << index;
+			setPiece(index, EMPTY);
+		}
+
+		switchSide();
+		freeCache();
+		return undo;
+	}
+
 	/**
 	 * Sets the contents of the given board space to the passed pieceType.
 	 *
@@ -479,6 +1564,18 @@ public abstract class CheckersBoard implements Cloneable {
 	protected void setTo(CheckersBoard board) {
 		for (int i = 0; i < 32; i++)
 			this.setPiece(i, board.getPiece(i));
+		if (sideToMove != board.sideToMove)
+			switchSide();
+	}
+
+	/**
+	 * Switches the side to move and updates the hash key accordingly.
+	 * Implementations that override {@link #makeMove(long)} should call it
+	 * after applying the move.
+	 */
+	protected void switchSide() {
+		sideToMove ^= 1;
+		hashKey ^= SIDE_TO_MOVE_KEY;
 	}
 
 	@Override
@@ -508,4 +1605,35 @@ public abstract class CheckersBoard implements Cloneable {
 
 		return sb.toString();
 	}
+
+	/**
+	 * Reverts a move applied by {@link #makeMove(long)}, restoring this board
+	 * to the position the move was generated for, including the side to move.
+	 * @param move - the move passed to {@link #makeMove(long)}
+	 * @param undo - the undo token returned from {@link #makeMove(long)}
+	 */
+	public void unmakeMove(long move, int undo) {
+		int from = getMoveFrom(move);
+		int to = getMoveTo(move);
+		int captured = getMoveCaptured(move);
+
+		switchSide();
+		byte side = sideToMove;
+
+		byte pieceType = getPiece(to);
+		setPiece(to, EMPTY);
+		if ((undo & (1 << to)) != 0)
+			pieceType = CHECKERS[side];
+		setPiece(from, pieceType);
+
+		byte opponent = (byte) (side ^ 1);
+		while (captured != 0) {
+			int index = Integer.numberOfTrailingZeros(captured);
+			captured &= captured - 1;
+			setPiece(index, (undo & (1 << index)) != 0 ? KINGS[opponent]
+					: CHECKERS[opponent]);
+		}
+
+		freeCache();
+	}
 }
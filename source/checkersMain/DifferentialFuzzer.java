@@ -0,0 +1,421 @@
+package checkersMain;
+
+import java.util.Random;
+
+import checkersBoard.BitCheckersBoard;
+import checkersBoard.BitboardCheckersBoard;
+import checkersBoard.DefaultCheckersBoard;
+import checkersMain.CheckersBoard.Ply;
+
+/**
+ * A randomised differential test of {@link CheckersBoard} implementations. It
+ * plays random games on every implementation at the same time and checks at
+ * every position that each implementation returns the same plies, successor
+ * boards, inverted board, moves, lazily iterated moves and material as the
+ * reference {@link DefaultCheckersBoard}. The order in which the plies and successors
+ * are requested is randomised, as the implementations take different paths
+ * depending on what has been cached. The time spent in each implementation is
+ * recorded, so the fuzzer also compares the throughput of the
+ * implementations on realistic positions.
+ * <p>
+ * Usage: {@code DifferentialFuzzer [games [seed [className...]]]}, where the
+ * class names are additional implementations with a default constructor that
+ * sets up the start of a game.
+ *
+ * @see Benchmark
+ * @version 1.00 - 18 October 2026
+ */
+public final class DifferentialFuzzer {
+
+	/**
+	 * The number of games played when no number is passed to
+	 * {@link #main(String[])}.
+	 */
+	public static final int DEFAULT_GAMES = 100000;
+
+	/**
+	 * The maximum number of plies of a game.
+	 */
+	public static final int MAX_PLIES = 200;
+
+	/**
+	 * Thrown when an implementation does not match the reference.
+	 */
+	public static class MismatchException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public MismatchException(String message) {
+			super(message);
+		}
+	}
+
+	private final CheckersBoard[] boards;
+	private final long[] times;
+	private final Random random;
+	private long positions;
+
+	private final long[] referenceMoves = new long[CheckersBoard.MAX_MOVES];
+	private final long[] moves = new long[CheckersBoard.MAX_MOVES];
+	private final MoveIterator iterator = new MoveIterator();
+
+	/**
+	 * @param seed
+	 *            - the seed of the random games
+	 * @param boards
+	 *            - the boards at the start of a game, the first being the
+	 *            reference
+	 */
+	public DifferentialFuzzer(long seed, CheckersBoard... boards) {
+		this.boards = boards;
+		this.times = new long[boards.length];
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Checks that every implementation matches the reference at the current
+	 * position.
+	 *
+	 * @param current
+	 *            - the current board of each implementation
+	 * @throws MismatchException
+	 *             if an implementation does not match the reference
+	 */
+	protected void checkPosition(CheckersBoard[] current) {
+		CheckersBoard reference = current[0];
+		boolean successorsFirst = random.nextBoolean();
+
+		for (int i = 0; i < current.length; i++) {
+			CheckersBoard board = current[i];
+			long oldTime = System.nanoTime();
+			int numPlies;
+			Ply[] plies;
+			CheckersBoard[] successors;
+			if (successorsFirst) {
+				numPlies = board.getNumSuccessors();
+				successors = new CheckersBoard[numPlies];
+				for (int j = 0; j < numPlies; j++)
+					successors[j] = board.getSuccessor(j);
+				plies = new Ply[board.getNumPlies()];
+				for (int j = 0; j < plies.length; j++)
+					plies[j] = board.getPly(j);
+			} else {
+				numPlies = board.getNumPlies();
+				plies = new Ply[numPlies];
+				for (int j = 0; j < numPlies; j++)
+					plies[j] = board.getPly(j);
+				successors = new CheckersBoard[board.getNumSuccessors()];
+				for (int j = 0; j < successors.length; j++)
+					successors[j] = board.getSuccessor(j);
+			}
+			CheckersBoard inverted = board.invertCheckersBoard();
+			int numMoves = board.getMoves(moves);
+			times[i] += System.nanoTime() - oldTime;
+
+			check(board.equals(reference), board, reference, "board");
+			check(board.getMaterial() == countMaterial(board), board,
+					reference, "getMaterial");
+			check(plies.length == numPlies && successors.length == numPlies,
+					board, reference, "getNumPlies " + plies.length
+							+ " and getNumSuccessors " + successors.length
+							+ " differ");
+			check(numPlies == reference.getNumPlies(), board, reference,
+					"getNumPlies " + numPlies + ", expected "
+							+ reference.getNumPlies());
+			check(numMoves == numPlies, board, reference, "getMoves "
+					+ numMoves + ", expected " + numPlies);
+			if (i == 0)
+				System.arraycopy(moves, 0, referenceMoves, 0, numMoves);
+			checkMoveIterator(board, reference);
+
+			for (int j = 0; j < numPlies; j++) {
+				check(plies[j].equals(reference.getPly(j)), board, reference,
+						"getPly(" + j + ") " + plies[j] + ", expected "
+								+ reference.getPly(j));
+				check(successors[j].equals(reference.getSuccessor(j)), board,
+						reference, "getSuccessor(" + j + ") for "
+								+ reference.getPly(j) + "\n" + successors[j]
+								+ "expected\n" + reference.getSuccessor(j));
+				check(moves[j] == referenceMoves[j], board, reference,
+						"getMoves()[" + j + "]");
+				checkMakeMove(board, moves[j], successors[j], reference);
+			}
+			check(inverted.equals(reference.invertCheckersBoard())
+					&& inverted.invertCheckersBoard().equals(board), board,
+					reference, "invertCheckersBoard");
+			checkCanonical(board, inverted, reference);
+			checkFeatures(board, reference);
+			checkCodec(board, reference);
+		}
+	}
+
+	/**
+	 * Checks that making the passed move on a clone of the passed board gives
+	 * the passed successor, and that unmaking it restores the board.
+	 */
+	private void checkMakeMove(CheckersBoard board, long move,
+			CheckersBoard successor, CheckersBoard reference) {
+		CheckersBoard clone = board.clone();
+		int undo = clone.makeMove(move);
+		for (int k = 0; k < 32; k++)
+			check(clone.getPiece(k) == successor.getPiece(k), board,
+					reference, "makeMove(" + Perft.getMoveString(move) + ")");
+		check(clone.getMaterial() == successor.getMaterial(), board,
+				reference, "getMaterial after makeMove("
+						+ Perft.getMoveString(move) + ")");
+		clone.unmakeMove(move, undo);
+		check(clone.equals(board) && clone.getMaterial() == board.getMaterial(),
+				board, reference, "unmakeMove(" + Perft.getMoveString(move)
+						+ ")");
+	}
+
+	/**
+	 * Checks that a {@link MoveIterator} over the passed board returns the
+	 * same moves as {@link CheckersBoard#getMoves(long[], byte)} in the same
+	 * order, that they are counted by {@link CheckersBoard#countMoves(byte)},
+	 * and that the captures are the moves if they are jumps, for both sides.
+	 */
+	private void checkMoveIterator(CheckersBoard board, CheckersBoard reference) {
+		long[] sideMoves = new long[CheckersBoard.MAX_MOVES];
+		long[] captures = new long[CheckersBoard.MAX_MOVES];
+		for (byte side = CheckersBoard.PLAYER1; side <= CheckersBoard.PLAYER2; side++) {
+			int numMoves = board.getMoves(sideMoves, side);
+			iterator.reset(board, side);
+			for (int j = 0; j < numMoves; j++)
+				check(iterator.hasNext() && iterator.next() == sideMoves[j]
+						&& iterator.getIndex() == j, board, reference,
+						"MoveIterator move " + j + " of side " + side);
+			check(!iterator.hasNext(), board, reference,
+					"MoveIterator returned more than " + numMoves
+							+ " moves of side " + side);
+
+			check(board.countMoves(side) == numMoves, board, reference,
+					"countMoves " + board.countMoves(side) + " of side " + side
+							+ ", expected " + numMoves);
+			int numCaptures = board.getCaptures(captures, side);
+			boolean jumps = numMoves > 0 && CheckersBoard.isJump(sideMoves[0]);
+			check(board.hasCapture(side) == jumps
+					&& numCaptures == (jumps ? numMoves : 0), board, reference,
+					"getCaptures " + numCaptures + " of side " + side);
+			for (int j = 0; j < numCaptures; j++)
+				check(captures[j] == sideMoves[j], board, reference,
+						"getCaptures()[" + j + "] of side " + side);
+		}
+	}
+
+	/**
+	 * Checks that the passed board and its inverted board with the other side
+	 * to move share a canonical key, and that {@link CheckersBoard#invertMove(long)}
+	 * translates the moves of one into the moves of the other.
+	 */
+	private void checkCanonical(CheckersBoard board, CheckersBoard inverted,
+			CheckersBoard reference) {
+		CheckersBoard twin = inverted.clone();
+		twin.switchSide();
+		check(board.getCanonicalKey() == twin.getCanonicalKey()
+				&& board.isCanonicalInverted() != twin.isCanonicalInverted()
+				&& !board.isCanonicalInverted(), board, reference,
+				"getCanonicalKey");
+
+		long[] boardMoves = new long[CheckersBoard.MAX_MOVES];
+		long[] twinMoves = new long[CheckersBoard.MAX_MOVES];
+		int numMoves = board.getMoves(boardMoves);
+		check(twin.getMoves(twinMoves) == numMoves, board, reference,
+				"getMoves of the colour reversed twin");
+		for (int j = 0; j < numMoves; j++)
+			check(CheckersBoard.invertMove(boardMoves[j]) == twinMoves[j]
+					&& CheckersBoard.invertMove(twinMoves[j]) == boardMoves[j],
+					board, reference, "invertMove("
+							+ Perft.getMoveString(boardMoves[j]) + ")");
+	}
+
+	/**
+	 * Checks that the {@link PositionCodec} code of the passed board and of
+	 * the board with the other side to move decode to the boards, and that
+	 * every implementation shares the code.
+	 */
+	private static void checkCodec(CheckersBoard board, CheckersBoard reference) {
+		if (!PositionCodec.canEncode(board))
+			return;
+		long referenceCode = PositionCodec.encode(reference);
+		CheckersBoard twin = board.clone();
+		twin.switchSide();
+		for (CheckersBoard position : new CheckersBoard[] { board, twin }) {
+			long code = PositionCodec.encode(position);
+			long expected = position == twin ? referenceCode
+					^ PositionCodec.SIDE_TO_MOVE_BIT : referenceCode;
+			CheckersBoard decoded = PositionCodec.decode(code,
+					reference.clone());
+			check(code == expected && decoded.equals(position)
+					&& decoded.getHashKey() == position.getHashKey(), board,
+					reference, "PositionCodec code " + Long.toHexString(code));
+		}
+	}
+
+	/**
+	 * Checks the feature masks of the passed board against masks found by
+	 * walking the board location by location, for both sides.
+	 */
+	private static void checkFeatures(CheckersBoard board,
+			CheckersBoard reference) {
+		for (byte side = CheckersBoard.PLAYER1; side <= CheckersBoard.PLAYER2; side++) {
+			byte[] directions = CheckersBoard.SIDE_DIRECTIONS[side];
+			int pieces = 0, kings = 0, attacked = 0, runaways = 0;
+			for (int i = 0; i < 32; i++) {
+				byte pieceType = board.getPiece(i);
+				if (pieceType != CheckersBoard.CHECKERS[side]
+						&& pieceType != CheckersBoard.KINGS[side])
+					continue;
+				boolean king = pieceType == CheckersBoard.KINGS[side];
+				pieces |= 1 << i;
+				if (king)
+					kings |= 1 << i;
+				else if (hasPath(board, i, side))
+					runaways |= 1 << i;
+				for (int d = 0; d < (king ? 4 : 2); d++) {
+					byte jump = CheckersBoard.JUMPS[i][directions[d]];
+					if (jump >= 0 && board.getPiece(jump) == CheckersBoard.EMPTY)
+						attacked |= 1 << CheckersBoard.NEIGHBORS[i][directions[d]];
+				}
+			}
+			int opponentPieces = 0;
+			for (int i = 0; i < 32; i++) {
+				byte pieceType = board.getPiece(i);
+				if (pieceType == CheckersBoard.CHECKERS[side ^ 1]
+						|| pieceType == CheckersBoard.KINGS[side ^ 1])
+					opponentPieces |= 1 << i;
+			}
+
+			check(board.getPieces(side) == pieces
+					&& board.getKings(side) == kings, board, reference,
+					"getPieces or getKings of side " + side);
+			check(board.getAttacked(side) == attacked, board, reference,
+					"getAttacked of side " + side);
+			check(board.getCapturable((byte) (side ^ 1)) == (attacked & opponentPieces),
+					board, reference, "getCapturable of side " + (side ^ 1));
+			check(board.getBackRankGuards(side) == (pieces & ~kings & CheckersBoard.BACK_RANKS[side]),
+					board, reference, "getBackRankGuards of side " + side);
+			check(board.getRunaways(side) == runaways, board, reference,
+					"getRunaways of side " + side);
+		}
+	}
+
+	/**
+	 * Returns whether a checker of the passed side on the passed board
+	 * location has a path of empty locations to its king row.
+	 */
+	private static boolean hasPath(CheckersBoard board, int index, byte side) {
+		byte[] directions = CheckersBoard.SIDE_DIRECTIONS[side];
+		for (int d = 0; d < 2; d++) {
+			byte neighbor = CheckersBoard.NEIGHBORS[index][directions[d]];
+			if (neighbor >= 0
+					&& board.getPiece(neighbor) == CheckersBoard.EMPTY
+					&& (CheckersBoard.isKingRow(neighbor, side) || hasPath(
+							board, neighbor, side)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the material summary of the passed board by scanning every
+	 * board location.
+	 */
+	private static int countMaterial(CheckersBoard board) {
+		int material = 0;
+		for (int i = 0; i < 32; i++)
+			material += CheckersBoard.MATERIAL_UNITS[board.getPiece(i)];
+		return material;
+	}
+
+	private static void check(boolean condition, CheckersBoard board,
+			CheckersBoard reference, String message) {
+		if (!condition)
+			throw new MismatchException(board.getClass().getSimpleName()
+					+ ": " + message + "\nin position\n" + reference);
+	}
+
+	/**
+	 * Returns the number of positions checked so far.
+	 *
+	 * @return the number of positions
+	 */
+	public long getPositions() {
+		return positions;
+	}
+
+	/**
+	 * Returns the time spent in the passed implementation so far.
+	 *
+	 * @param index
+	 *            - the index of the implementation
+	 * @return the time in nanoseconds
+	 */
+	public long getTime(int index) {
+		return times[index];
+	}
+
+	/**
+	 * Plays a random game on every implementation, checking every position.
+	 *
+	 * @throws MismatchException
+	 *             if an implementation does not match the reference
+	 */
+	public void playGame() {
+		CheckersBoard[] current = new CheckersBoard[boards.length];
+		for (int i = 0; i < boards.length; i++)
+			current[i] = boards[i].clone();
+
+		for (int ply = 0; ply < MAX_PLIES; ply++) {
+			checkPosition(current);
+			positions++;
+
+			int numPlies = current[0].getNumPlies();
+			if (numPlies == 0)
+				break;
+			int index = random.nextInt(numPlies);
+			for (int i = 0; i < current.length; i++)
+				current[i] = current[i].getSuccessor(index)
+						.invertCheckersBoard();
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int games = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_GAMES;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System
+				.nanoTime();
+
+		CheckersBoard[] boards = new CheckersBoard[3 + Math.max(0,
+				args.length - 2)];
+		boards[0] = new DefaultCheckersBoard();
+		boards[1] = new BitCheckersBoard();
+		boards[2] = new BitboardCheckersBoard();
+		for (int i = 2; i < args.length; i++)
+			boards[i + 1] = (CheckersBoard) Class.forName(args[i])
+					.getDeclaredConstructor().newInstance();
+
+		System.out.println("Differential Fuzzer");
+		System.out.println("-------------------------");
+		System.out.println("Seed: " + seed);
+
+		DifferentialFuzzer fuzzer = new DifferentialFuzzer(seed, boards);
+		for (int game = 1; game <= games; game++) {
+			try {
+				fuzzer.playGame();
+			} catch (MismatchException e) {
+				System.out.println("\nMismatch in game " + game + " (seed "
+						+ seed + "): " + e.getMessage());
+				System.exit(1);
+			}
+			if (game % 1000 == 0 || game == games)
+				System.out.println("Games: " + game + "  Positions: "
+						+ fuzzer.getPositions());
+		}
+
+		System.out.println("\nTime per implementation");
+		for (int i = 0; i < boards.length; i++)
+			System.out.println(String.format("%24s %10d ms", boards[i]
+					.getClass().getSimpleName(), fuzzer.getTime(i) / 1000000));
+		System.out.println("\n\n\n");
+	}
+}
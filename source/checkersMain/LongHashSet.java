@@ -0,0 +1,196 @@
+package checkersMain;
+
+import java.util.Arrays;
+
+/**
+ * A set of long values, such as {@link PositionCodec} codes or
+ * {@link CheckersBoard#getHashKey() hash keys}, that stores the values in a
+ * single long array and never boxes them. It uses open addressing with
+ * linear probing and keeps its load below three quarters, so a value takes
+ * between 10.7 and 21.3 bytes, compared to the 40 or so bytes of a boxed
+ * value in a {@link java.util.HashSet} entry.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see LongIntHashMap
+ * @version 1.00 - 18 October 2026
+ */
+public final class LongHashSet {
+
+	/**
+	 * The value that marks a free slot. The value itself is held in
+	 * {@link #containsFree}.
+	 */
+	static final long FREE = 0;
+
+	private long[] values;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+
+	/**
+	 * Creates an empty set.
+	 */
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize - the number of values the set can hold before it
+	 *            grows
+	 */
+	public LongHashSet(int expectedSize) {
+		values = new long[getCapacity(expectedSize)];
+		mask = values.length - 1;
+	}
+
+	/**
+	 * Returns the table size for the passed number of values, a power of two
+	 * that keeps the load at most three quarters.
+	 */
+	static int getCapacity(int expectedSize) {
+		long capacity = Math.max(8L, (long) expectedSize * 4 / 3 + 1);
+		if (capacity > 1 << 30)
+			throw new IllegalArgumentException("Too many values: "
+					+ expectedSize);
+		return Integer.highestOneBit((int) capacity - 1) << 1;
+	}
+
+	/**
+	 * Returns the first slot to probe for the passed value. The value is
+	 * mixed first, as {@link PositionCodec} codes are far from random.
+	 */
+	static int getSlot(long value, int mask) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		return (int) value & mask;
+	}
+
+	/**
+	 * Adds the passed value to the set.
+	 * @param value - the value to add
+	 * @return whether the value was not in the set already
+	 */
+	public boolean add(long value) {
+		if (value == FREE) {
+			if (containsFree)
+				return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+
+		int slot = getSlot(value, mask);
+		while (values[slot] != FREE) {
+			if (values[slot] == value)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		values[slot] = value;
+		if (++size > values.length / 4 * 3)
+			rehash(values.length * 2);
+		return true;
+	}
+
+	/**
+	 * Removes every value from the set, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(values, FREE);
+		containsFree = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns whether the passed value is in the set.
+	 * @param value - the value to look for
+	 * @return whether the value is in the set
+	 */
+	public boolean contains(long value) {
+		if (value == FREE)
+			return containsFree;
+
+		int slot = getSlot(value, mask);
+		while (values[slot] != FREE) {
+			if (values[slot] == value)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the passed value from the set. The values after it in its probe
+	 * sequence are moved back, so no deleted markers are left behind.
+	 * @param value - the value to remove
+	 * @return whether the value was in the set
+	 */
+	public boolean remove(long value) {
+		if (value == FREE) {
+			if (!containsFree)
+				return false;
+			containsFree = false;
+			size--;
+			return true;
+		}
+
+		int slot = getSlot(value, mask);
+		while (values[slot] != value) {
+			if (values[slot] == FREE)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		size--;
+
+		// Moves back the values that would not be found past the new gap
+		int gap = slot;
+		for (slot = (gap + 1) & mask; values[slot] != FREE; slot = (slot + 1)
+				& mask) {
+			int home = getSlot(values[slot], mask);
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		values[gap] = FREE;
+		return true;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldValues = values;
+		values = new long[capacity];
+		mask = capacity - 1;
+		for (long value : oldValues) {
+			if (value == FREE)
+				continue;
+			int slot = getSlot(value, mask);
+			while (values[slot] != FREE)
+				slot = (slot + 1) & mask;
+			values[slot] = value;
+		}
+	}
+
+	/**
+	 * Returns the number of values in the set.
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the values of the set in no particular order.
+	 * @return a new array of the values
+	 */
+	public long[] toArray() {
+		long[] array = new long[size];
+		int count = 0;
+		if (containsFree)
+			array[count++] = FREE;
+		for (long value : values)
+			if (value != FREE)
+				array[count++] = value;
+		return array;
+	}
+}
@@ -0,0 +1,182 @@
+package checkersMain;
+
+import java.util.Arrays;
+
+/**
+ * A map from long keys, such as {@link PositionCodec} codes or
+ * {@link CheckersBoard#getHashKey() hash keys}, to int values, such as ply
+ * indices, scores or visit counts. The keys and values are stored in two
+ * parallel arrays and are never boxed. It uses open addressing with linear
+ * probing and keeps its load below three quarters, so an entry takes between
+ * 16 and 32 bytes, compared to the 70 or so bytes of a
+ * {@link java.util.HashMap} entry with a boxed key and value.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see LongHashSet
+ * @version 1.00 - 18 October 2026
+ */
+public final class LongIntHashMap {
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+	private int freeValue;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public LongIntHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize - the number of entries the map can hold before it
+	 *            grows
+	 */
+	public LongIntHashMap(int expectedSize) {
+		int capacity = LongHashSet.getCapacity(expectedSize);
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Removes every entry from the map, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, LongHashSet.FREE);
+		containsFree = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns whether the map has an entry for the passed key.
+	 * @param key - the key to look for
+	 * @return whether the key is in the map
+	 */
+	public boolean containsKey(long key) {
+		if (key == LongHashSet.FREE)
+			return containsFree;
+		return findSlot(key) >= 0;
+	}
+
+	/**
+	 * Returns the slot of the passed key, or -1 if it is not in the map.
+	 */
+	private int findSlot(long key) {
+		int slot = LongHashSet.getSlot(key, mask);
+		while (keys[slot] != LongHashSet.FREE) {
+			if (keys[slot] == key)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the value of the passed key.
+	 * @param key - the key to look for
+	 * @param defaultValue - the value to return if the key is not in the map
+	 * @return the value of the key, or the default value
+	 */
+	public int get(long key, int defaultValue) {
+		if (key == LongHashSet.FREE)
+			return containsFree ? freeValue : defaultValue;
+		int slot = findSlot(key);
+		return slot >= 0 ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Sets the value of the passed key.
+	 * @param key - the key of the entry
+	 * @param value - the value of the entry
+	 * @return whether the key was not in the map already
+	 */
+	public boolean put(long key, int value) {
+		if (key == LongHashSet.FREE) {
+			freeValue = value;
+			if (containsFree)
+				return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+
+		int slot = LongHashSet.getSlot(key, mask);
+		while (keys[slot] != LongHashSet.FREE) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > keys.length / 4 * 3)
+			rehash(keys.length * 2);
+		return true;
+	}
+
+	/**
+	 * Removes the entry of the passed key from the map. The entries after it
+	 * in its probe sequence are moved back, so no deleted markers are left
+	 * behind.
+	 * @param key - the key of the entry to remove
+	 * @return whether the key was in the map
+	 */
+	public boolean remove(long key) {
+		if (key == LongHashSet.FREE) {
+			if (!containsFree)
+				return false;
+			containsFree = false;
+			size--;
+			return true;
+		}
+
+		int gap = findSlot(key);
+		if (gap < 0)
+			return false;
+		size--;
+
+		// Moves back the entries that would not be found past the new gap
+		for (int slot = (gap + 1) & mask; keys[slot] != LongHashSet.FREE; slot = (slot + 1)
+				& mask) {
+			int home = LongHashSet.getSlot(keys[slot], mask);
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = LongHashSet.FREE;
+		return true;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == LongHashSet.FREE)
+				continue;
+			int slot = LongHashSet.getSlot(oldKeys[i], mask);
+			while (keys[slot] != LongHashSet.FREE)
+				slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
+	}
+}
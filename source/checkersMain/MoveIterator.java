@@ -0,0 +1,158 @@
+package checkersMain;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over the moves of a {@link CheckersBoard}. The moves are
+ * generated one piece at a time, only when the moves generated so far have
+ * been used up, so a search that cuts off after the first few moves never
+ * generates the rest. The jumps come first: the iterator only asks the board
+ * for the pieces that can make a simple move if none of the pieces can jump,
+ * as jumps are forced.
+ * <p>
+ * The moves are returned in the same order as
+ * {@link CheckersBoard#getMoves(long[], byte)}, so {@link #getIndex()} is the
+ * index of the ply and successor of the last move returned. An iterator can be
+ * reset and reused for every node at the same depth of a search. The board
+ * may be changed with {@link CheckersBoard#makeMove(long)} between calls, as
+ * long as it is restored with {@link CheckersBoard#unmakeMove(long, int)}
+ * before the next call to {@link #hasNext()}.
+ *
+ * @see CheckersBoard#getPieceMoves(int, boolean, long[], int)
+ * @version 1.00 - 18 October 2026
+ */
+public final class MoveIterator {
+
+	private final long[] moves = new long[CheckersBoard.MAX_MOVES];
+
+	private CheckersBoard board;
+	private byte side;
+
+	/**
+	 * Whether the pieces to generate the moves of have been found.
+	 */
+	private boolean started;
+	/**
+	 * Whether the moves being generated are jumps.
+	 */
+	private boolean jumps;
+	/**
+	 * The mask of the pieces whose moves have not been generated yet.
+	 */
+	private int pieces;
+
+	private int count;
+	private int next;
+	private int index;
+
+	/**
+	 * Creates an iterator that has to be {@link #reset(CheckersBoard)} before
+	 * it is used.
+	 */
+	public MoveIterator() {
+	}
+
+	/**
+	 * @param board
+	 *            - the board to iterate over the moves of the side to move of
+	 */
+	public MoveIterator(CheckersBoard board) {
+		reset(board);
+	}
+
+	/**
+	 * Returns the index of the last move returned from {@link #next()} in
+	 * {@link CheckersBoard#getMoves(long[], byte)}.
+	 *
+	 * @return the index of the last move, or -1 if no move was returned yet
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns whether there is another move, generating the moves of the
+	 * next piece if the moves generated so far have been used up.
+	 *
+	 * @return whether there is another move
+	 */
+	public boolean hasNext() {
+		if (!started) {
+			started = true;
+			pieces = board.getJumpers(side);
+			jumps = pieces != 0;
+			if (!jumps)
+				pieces = board.getMovers(side);
+		}
+
+		while (next == count) {
+			if (pieces == 0)
+				return false;
+			int pieceIndex = CheckersBoard.getNextPiece(pieces, side);
+			pieces &= ~(1 << pieceIndex);
+			next = 0;
+			count = board.getPieceMoves(pieceIndex, jumps, moves, 0);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the moves are jumps. The moves are either all jumps or
+	 * all simple moves.
+	 *
+	 * @return whether the moves are jumps
+	 */
+	public boolean isJumps() {
+		hasNext();
+		return jumps;
+	}
+
+	/**
+	 * Returns the next move, packed as by
+	 * {@link CheckersBoard#createMove(int, int, int)}.
+	 *
+	 * @return the next move
+	 * @throws NoSuchElementException
+	 *             if there are no more moves
+	 */
+	public long next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		index++;
+		return moves[next++];
+	}
+
+	/**
+	 * Starts iterating over the moves of the side to move of the passed
+	 * board. No moves are generated until {@link #hasNext()} is called.
+	 *
+	 * @param board
+	 *            - the board to iterate over the moves of
+	 * @return this iterator
+	 */
+	public MoveIterator reset(CheckersBoard board) {
+		return reset(board, board.getSideToMove());
+	}
+
+	/**
+	 * Starts iterating over the moves of the passed side of the passed
+	 * board. No moves are generated until {@link #hasNext()} is called.
+	 *
+	 * @param board
+	 *            - the board to iterate over the moves of
+	 * @param side
+	 *            - one of {@link CheckersBoard#PLAYER1} or
+	 *            {@link CheckersBoard#PLAYER2}
+	 * @return this iterator
+	 */
+	public MoveIterator reset(CheckersBoard board, byte side) {
+		this.board = board;
+		this.side = side;
+		started = false;
+		pieces = 0;
+		count = 0;
+		next = 0;
+		index = -1;
+		return this;
+	}
+}
@@ -0,0 +1,396 @@
+package checkersMain;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import checkersBoard.BitCheckersBoard;
+import checkersBoard.BitboardCheckersBoard;
+import checkersBoard.DefaultCheckersBoard;
+
+/**
+ * A perft (performance test) of the move generation of {@link CheckersBoard}s.
+ * It counts the leaf nodes of the game tree to a fixed depth by walking the
+ * tree with {@link CheckersBoard#makeMove(long)} and
+ * {@link CheckersBoard#unmakeMove(long, int)}. The node counts only depend on
+ * the rules, so every implementation must produce the same counts, which
+ * makes perft a correctness check for new implementations as well as a
+ * measure of the throughput of their move generators.
+ * <p>
+ * The moves of the last ply are counted without being made (bulk counting),
+ * so the throughput mostly measures {@link CheckersBoard#getMoves(long[])}.
+ * The tree can also be walked with the successor boards and
+ * {@link CheckersBoard#invertCheckersBoard()}, which measures the allocating
+ * API used by the simpler players.
+ * <p>
+ * To measure how the move generators scale across cores, the tree can be
+ * split into a {@link ForkJoinPool} task for each node of the first plies,
+ * with the leaf counts added to a {@link LongAdder} without locking.
+ *
+ * @see Benchmark
+ * @version 1.00 - 18 October 2026
+ */
+public final class Perft {
+
+	/**
+	 * A task that counts the leaf nodes below its board. Above the split
+	 * depth it forks a task for each move; below it, the tree is walked
+	 * sequentially in the worker thread.
+	 */
+	protected static class PerftTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final CheckersBoard board;
+		protected final int depth;
+		protected final int splitDepth;
+		protected final boolean successors;
+		protected final LongAdder nodes;
+
+		/**
+		 * @param board
+		 *            - the board to search, owned by this task
+		 * @param depth
+		 *            - the remaining depth
+		 * @param splitDepth
+		 *            - the number of plies that are still split into tasks
+		 * @param successors
+		 *            - whether the tree is walked with the successor boards
+		 *            instead of makeMove and unmakeMove
+		 * @param nodes
+		 *            - the counter the leaf nodes are added to
+		 */
+		public PerftTask(CheckersBoard board, int depth, int splitDepth,
+				boolean successors, LongAdder nodes) {
+			this.board = board;
+			this.depth = depth;
+			this.splitDepth = splitDepth;
+			this.successors = successors;
+			this.nodes = nodes;
+		}
+
+		@Override
+		protected void compute() {
+			if (splitDepth <= 0 || depth <= 1) {
+				nodes.add(successors ? perftSuccessors(board, depth) : perft(
+						board, depth));
+				return;
+			}
+
+			PerftTask[] tasks;
+			if (successors) {
+				tasks = new PerftTask[board.getNumSuccessors()];
+				for (int i = 0; i < tasks.length; i++)
+					tasks[i] = new PerftTask(board.getSuccessor(i)
+							.invertCheckersBoard(), depth - 1, splitDepth - 1,
+							successors, nodes);
+			} else {
+				long[] moves = new long[CheckersBoard.MAX_MOVES];
+				tasks = new PerftTask[board.getMoves(moves)];
+				for (int i = 0; i < tasks.length; i++) {
+					CheckersBoard child = board.clone();
+					child.makeMove(moves[i]);
+					tasks[i] = new PerftTask(child, depth - 1, splitDepth - 1,
+							successors, nodes);
+				}
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * The depth searched when no depth is passed to {@link #main(String[])}.
+	 */
+	public static final int DEFAULT_DEPTH = 10;
+
+	/**
+	 * The number of plies split into parallel tasks by default. The start
+	 * position only has 7 moves, so splitting one ply deeper gives enough
+	 * tasks to balance the work across the cores.
+	 */
+	public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+	/**
+	 * Counts the root moves of the passed board and the leaf nodes below each
+	 * of them to the passed depth. The board is not modified.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param depth
+	 *            - the depth of the leaf nodes, at least one
+	 * @param moves
+	 *            - the buffer the root moves are written to; it should have a
+	 *            length of at least {@link CheckersBoard#MAX_MOVES}
+	 * @param nodes
+	 *            - the buffer the leaf node count of each root move is
+	 *            written to, at the index of its move
+	 * @return the number of root moves
+	 */
+	public static int divide(CheckersBoard board, int depth, long[] moves,
+			long[] nodes) {
+		if (depth < 1)
+			throw new IllegalArgumentException("Depth must be at least one: "
+					+ depth);
+
+		board = board.clone();
+		long[][] moveBuffers = new long[depth][CheckersBoard.MAX_MOVES];
+		int numMoves = board.getMoves(moves);
+		for (int i = 0; i < numMoves; i++) {
+			int undo = board.makeMove(moves[i]);
+			nodes[i] = perft(board, depth - 1, moveBuffers);
+			board.unmakeMove(moves[i], undo);
+		}
+		return numMoves;
+	}
+
+	/**
+	 * Returns a readable form of the passed move, being the starting and final
+	 * index of the moved piece separated by "x" for a jump and "-" otherwise.
+	 *
+	 * @param move
+	 *            - the packed move
+	 * @return the readable form of the move
+	 */
+	public static String getMoveString(long move) {
+		return CheckersBoard.getMoveFrom(move)
+				+ (CheckersBoard.isJump(move) ? "x" : "-")
+				+ CheckersBoard.getMoveTo(move);
+	}
+
+	/**
+	 * Runs perft to the depth passed as the first argument, or
+	 * {@link #DEFAULT_DEPTH}, for each {@link CheckersBoard} implementation
+	 * from the start of a game. The node count, time and nodes per second are
+	 * printed for each depth, followed by the divide of the final depth.
+	 * Finally the scaling of the final depth is reported from one thread up
+	 * to the number of threads passed as the second argument, or the number
+	 * of available processors.
+	 *
+	 * @param args
+	 *            - the optional depth and maximum number of threads
+	 */
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_DEPTH;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		CheckersBoard[] boards = new CheckersBoard[] {
+				new DefaultCheckersBoard(), new BitCheckersBoard(),
+				new BitboardCheckersBoard() };
+
+		System.out.println("Perft");
+		System.out.println("-------------------------");
+
+		long[] expected = new long[depth + 1];
+		for (int i = 0; i < boards.length; i++) {
+			System.out.println("\n" + boards[i].getClass().getSimpleName());
+			System.out.println(String.format("%5s %14s %10s %14s", "Depth",
+					"Nodes", "Time (ms)", "Nodes/s"));
+			for (int d = 1; d <= depth; d++) {
+				long oldTime = System.nanoTime();
+				long nodes = perft(boards[i], d);
+				long time = System.nanoTime() - oldTime;
+
+				String line = String.format("%5d %14d %10d %14d", d, nodes,
+						time / 1000000, getNodesPerSecond(nodes, time));
+				if (i == 0)
+					expected[d] = nodes;
+				else if (nodes != expected[d])
+					line += "   MISMATCH, expected " + expected[d];
+				System.out.println(line);
+			}
+
+			long[] moves = new long[CheckersBoard.MAX_MOVES];
+			long[] nodes = new long[CheckersBoard.MAX_MOVES];
+			int numMoves = divide(boards[i], depth, moves, nodes);
+			System.out.println("Divide (depth " + depth + ")");
+			for (int j = 0; j < numMoves; j++)
+				System.out.println(String.format("%7s %14d",
+						getMoveString(moves[j]), nodes[j]));
+		}
+
+		for (int i = 0; i < boards.length; i++) {
+			scalingReport(boards[i], depth, DEFAULT_SPLIT_DEPTH, maxThreads,
+					false);
+			scalingReport(boards[i], depth - 1, DEFAULT_SPLIT_DEPTH,
+					maxThreads, true);
+		}
+
+		System.out.println("\n\n\n");
+	}
+
+	/**
+	 * Returns the throughput of a perft.
+	 *
+	 * @param nodes
+	 *            - the number of leaf nodes counted
+	 * @param nanoTime
+	 *            - the time taken in nanoseconds
+	 * @return the number of leaf nodes per second
+	 */
+	public static long getNodesPerSecond(long nodes, long nanoTime) {
+		return nanoTime == 0 ? 0 : (long) (nodes * 1e9 / nanoTime);
+	}
+
+	/**
+	 * Counts the leaf nodes of the game tree of the passed board to the passed
+	 * depth in parallel. The first plies are split into a task for each node,
+	 * and each task walks its subtree sequentially. The board is not modified.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param depth
+	 *            - the depth of the leaf nodes
+	 * @param splitDepth
+	 *            - the number of plies split into tasks
+	 * @param successors
+	 *            - whether the tree is walked with the successor boards, like
+	 *            {@link #perftSuccessors(CheckersBoard, int)}
+	 * @param pool
+	 *            - the pool the tasks are run in
+	 * @return the number of leaf nodes
+	 */
+	public static long parallelPerft(CheckersBoard board, int depth,
+			int splitDepth, boolean successors, ForkJoinPool pool) {
+		LongAdder nodes = new LongAdder();
+		pool.invoke(new PerftTask(board.clone(), depth, splitDepth,
+				successors, nodes));
+		return nodes.sum();
+	}
+
+	/**
+	 * Counts the leaf nodes of the game tree of the passed board to the passed
+	 * depth. The board is not modified.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param depth
+	 *            - the depth of the leaf nodes
+	 * @return the number of leaf nodes
+	 */
+	public static long perft(CheckersBoard board, int depth) {
+		if (depth < 1)
+			return 1;
+		return perft(board.clone(), depth,
+				new long[depth][CheckersBoard.MAX_MOVES]);
+	}
+
+	/**
+	 * Counts the leaf nodes of the game tree of the passed board to the passed
+	 * depth like {@link #perft(CheckersBoard, int)}, but it walks the tree
+	 * with {@link CheckersBoard#getSuccessor(int)} and
+	 * {@link CheckersBoard#invertCheckersBoard()}, so a board is created for
+	 * every node.
+	 *
+	 * @param board
+	 *            - the board to search, in the perspective of the player to
+	 *            move
+	 * @param depth
+	 *            - the depth of the leaf nodes
+	 * @return the number of leaf nodes
+	 */
+	public static long perftSuccessors(CheckersBoard board, int depth) {
+		if (depth < 1)
+			return 1;
+
+		int numSuccessors = board.getNumSuccessors();
+		if (depth == 1)
+			return numSuccessors;
+
+		long nodes = 0;
+		for (int i = 0; i < numSuccessors; i++)
+			nodes += perftSuccessors(board.getSuccessor(i)
+					.invertCheckersBoard(), depth - 1);
+		return nodes;
+	}
+
+	/**
+	 * Prints the time, nodes per second, speedup and efficiency of
+	 * {@link #parallelPerft(CheckersBoard, int, int, boolean, ForkJoinPool)}
+	 * for each number of threads from one to the passed maximum. The speedup
+	 * is relative to one thread, and the efficiency is the speedup divided
+	 * by the number of threads, so a perfectly scaling implementation has an
+	 * efficiency of 1.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param depth
+	 *            - the depth of the leaf nodes
+	 * @param splitDepth
+	 *            - the number of plies split into tasks
+	 * @param maxThreads
+	 *            - the maximum number of threads
+	 * @param successors
+	 *            - whether the tree is walked with the successor boards
+	 */
+	public static void scalingReport(CheckersBoard board, int depth,
+			int splitDepth, int maxThreads, boolean successors) {
+		System.out.println("\nParallel Scaling: "
+				+ board.getClass().getSimpleName() + ", depth " + depth
+				+ (successors ? ", successors" : ", makeMove"));
+		System.out.println(String.format("%7s %14s %10s %14s %8s %10s",
+				"Threads", "Nodes", "Time (ms)", "Nodes/s", "Speedup",
+				"Efficiency"));
+
+		// Warm up, so the first timing does not include the compilation
+		ForkJoinPool warmUpPool = new ForkJoinPool(1);
+		parallelPerft(board, depth, splitDepth, successors, warmUpPool);
+		warmUpPool.shutdown();
+
+		long singleTime = 0;
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			// Every run starts without cached successor boards
+			BoardCache.getDefault().clear();
+			System.gc();
+
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			long oldTime = System.nanoTime();
+			long nodes = parallelPerft(board, depth, splitDepth, successors,
+					pool);
+			long time = System.nanoTime() - oldTime;
+			pool.shutdown();
+
+			if (threads == 1)
+				singleTime = time;
+			double speedup = (double) singleTime / time;
+			System.out.println(String.format("%7d %14d %10d %14d %8.2f %10.2f",
+					threads, nodes, time / 1000000,
+					getNodesPerSecond(nodes, time), speedup, speedup / threads));
+		}
+	}
+
+	/**
+	 * Counts the leaf nodes below the passed board, walking the tree in place.
+	 *
+	 * @param board
+	 *            - the board to search, restored before returning
+	 * @param depth
+	 *            - the remaining depth
+	 * @param moveBuffers
+	 *            - the move buffers of the search, one for each remaining
+	 *            depth
+	 * @return the number of leaf nodes
+	 */
+	private static long perft(CheckersBoard board, int depth,
+			long[][] moveBuffers) {
+		if (depth == 0)
+			return 1;
+
+		long[] moves = moveBuffers[depth - 1];
+		int numMoves = board.getMoves(moves);
+		// Bulk counting: the moves of the last ply are not made
+		if (depth == 1)
+			return numMoves;
+
+		long nodes = 0;
+		for (int i = 0; i < numMoves; i++) {
+			int undo = board.makeMove(moves[i]);
+			nodes += perft(board, depth - 1, moveBuffers);
+			board.unmakeMove(moves[i], undo);
+		}
+		return nodes;
+	}
+
+	private Perft() {
+
+	}
+}
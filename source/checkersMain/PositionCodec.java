@@ -0,0 +1,182 @@
+package checkersMain;
+
+/**
+ * Packs the position of a {@link CheckersBoard} into a single long and back,
+ * so large numbers of positions can be kept in primitive arrays and
+ * collections such as {@link LongHashSet} and {@link LongIntHashMap} instead
+ * of as board objects. A code takes 8 bytes, whatever the implementation of
+ * the board.
+ * <p>
+ * The code is laid out as follows, the occupied locations being taken in
+ * ascending index order:
+ * <ul>
+ * <li>bits 0 to 31 hold the mask of the occupied board locations;
+ * <li>the next bit of each occupied location is set if it holds a Player2
+ * piece;
+ * <li>the remaining bits below bit 63 hold the kings. If there is a bit for
+ * every occupied location, the bit of each occupied location is set if it
+ * holds a king. Otherwise they hold a list of 5-bit entries, each the
+ * number of the occupied location that holds a king, ended by an entry of
+ * {@value #END_OF_KINGS} if there is room for it;
+ * <li>bit 63 is set if it is Player2's turn.
+ * </ul>
+ * Five states for each of the 32 locations do not fit into 64 bits, so not
+ * every position has a code. All positions with up to 15 pieces do, as do the
+ * positions with more pieces and few kings: up to three kings with 16
+ * pieces, two kings with up to 21 pieces and one king with up to 24 pieces.
+ * The positions of an opening or of a training set almost always fit; use
+ * {@link #canEncode(CheckersBoard)} to check the others.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public final class PositionCodec {
+
+	/**
+	 * The king list entry that ends the list of kings.
+	 */
+	public static final int END_OF_KINGS = 31;
+
+	/**
+	 * The bit of a code that is set if it is Player2's turn.
+	 */
+	public static final long SIDE_TO_MOVE_BIT = 1L << 63;
+
+	/**
+	 * The number of bits below {@link #SIDE_TO_MOVE_BIT} that are not used
+	 * by the occupancy mask.
+	 */
+	private static final int PIECE_BITS = 31;
+
+	private PositionCodec() {
+	}
+
+	/**
+	 * Returns whether the position of the passed board has a code.
+	 * @param board - the board to encode
+	 * @return whether {@link #encode(CheckersBoard)} can encode the board
+	 */
+	public static boolean canEncode(CheckersBoard board) {
+		int occupied = board.getPieces(CheckersBoard.PLAYER1)
+				| board.getPieces(CheckersBoard.PLAYER2);
+		int kings = board.getKings(CheckersBoard.PLAYER1)
+				| board.getKings(CheckersBoard.PLAYER2);
+		return canEncode(Integer.bitCount(occupied), Integer.bitCount(kings));
+	}
+
+	private static boolean canEncode(int numPieces, int numKings) {
+		int kingBits = PIECE_BITS - numPieces;
+		return kingBits >= numPieces || numKings * 5 <= kingBits;
+	}
+
+	/**
+	 * Returns the code of the position of the passed board, including the
+	 * side to move.
+	 * @param board - the board to encode
+	 * @return the code of the position
+	 * @throws IllegalArgumentException if the position has no code
+	 * @see #canEncode(CheckersBoard)
+	 */
+	public static long encode(CheckersBoard board) {
+		int player2 = board.getPieces(CheckersBoard.PLAYER2);
+		int occupied = board.getPieces(CheckersBoard.PLAYER1) | player2;
+		int kings = board.getKings(CheckersBoard.PLAYER1)
+				| board.getKings(CheckersBoard.PLAYER2);
+		int numPieces = Integer.bitCount(occupied);
+		if (!canEncode(numPieces, Integer.bitCount(kings)))
+			throw new IllegalArgumentException("The position with "
+					+ numPieces + " pieces and " + Integer.bitCount(kings)
+					+ " kings has no code");
+
+		long code = occupied & 0xFFFFFFFFL;
+		int shift = 32;
+		for (int pieces = occupied; pieces != 0; pieces &= pieces - 1, shift++)
+			if ((player2 & Integer.lowestOneBit(pieces)) != 0)
+				code |= 1L << shift;
+
+		int kingBits = PIECE_BITS - numPieces;
+		if (kingBits >= numPieces) {
+			for (int pieces = occupied; pieces != 0; pieces &= pieces - 1, shift++)
+				if ((kings & Integer.lowestOneBit(pieces)) != 0)
+					code |= 1L << shift;
+		} else {
+			int end = shift + kingBits;
+			for (int ordinal = 0, pieces = occupied; pieces != 0; pieces &= pieces - 1, ordinal++) {
+				if ((kings & Integer.lowestOneBit(pieces)) != 0) {
+					code |= (long) ordinal << shift;
+					shift += 5;
+				}
+			}
+			if (shift + 5 <= end)
+				code |= (long) END_OF_KINGS << shift;
+		}
+
+		if (board.getSideToMove() == CheckersBoard.PLAYER2)
+			code |= SIDE_TO_MOVE_BIT;
+		return code;
+	}
+
+	/**
+	 * Sets the passed board to the position of the passed code, including
+	 * the side to move, and returns it. The cached plies and boards of the
+	 * board are freed.
+	 * @param code - a code returned from {@link #encode(CheckersBoard)}
+	 * @param board - the board to set to the position, which has to be owned
+	 *            by the caller
+	 * @return the passed board
+	 */
+	public static CheckersBoard decode(long code, CheckersBoard board) {
+		int occupied = (int) code;
+		int numPieces = Integer.bitCount(occupied);
+		int kingBits = PIECE_BITS - numPieces;
+
+		int kings = 0;
+		int shift = 32 + numPieces;
+		if (kingBits >= numPieces) {
+			for (int pieces = occupied; pieces != 0; pieces &= pieces - 1, shift++)
+				if ((code & 1L << shift) != 0)
+					kings |= Integer.lowestOneBit(pieces);
+		} else {
+			for (int end = shift + kingBits; shift + 5 <= end; shift += 5) {
+				int ordinal = (int) (code >>> shift) & 31;
+				if (ordinal == END_OF_KINGS)
+					break;
+				kings |= getOccupied(occupied, ordinal);
+			}
+		}
+
+		shift = 32;
+		for (int i = 0; i < 32; i++) {
+			int bit = 1 << i;
+			byte pieceType = CheckersBoard.EMPTY;
+			if ((occupied & bit) != 0) {
+				boolean player2 = (code & 1L << shift++) != 0;
+				boolean king = (kings & bit) != 0;
+				if (player2)
+					pieceType = king ? CheckersBoard.PLAYER2_KING
+							: CheckersBoard.PLAYER2_CHECKER;
+				else
+					pieceType = king ? CheckersBoard.PLAYER1_KING
+							: CheckersBoard.PLAYER1_CHECKER;
+			}
+			if (board.getPiece(i) != pieceType)
+				board.setPiece(i, pieceType);
+		}
+
+		byte side = (code & SIDE_TO_MOVE_BIT) != 0 ? CheckersBoard.PLAYER2
+				: CheckersBoard.PLAYER1;
+		if (board.getSideToMove() != side)
+			board.switchSide();
+		board.freeCache();
+		return board;
+	}
+
+	/**
+	 * Returns the bit of the occupied location with the passed number, the
+	 * occupied locations being numbered in ascending index order.
+	 */
+	private static int getOccupied(int occupied, int ordinal) {
+		for (int i = 0; i < ordinal; i++)
+			occupied &= occupied - 1;
+		return Integer.lowestOneBit(occupied);
+	}
+}
@@ -0,0 +1,135 @@
+package checkersMain;
+
+import java.util.Arrays;
+
+/**
+ * The working memory of a search, allocated once and reused for every node
+ * and every move. It holds one slot per ply of the search, each with a move
+ * buffer, a {@link MoveIterator} and an undo record, along with the board
+ * the search walks with {@link CheckersBoard#makeMove(long)} and
+ * {@link CheckersBoard#unmakeMove(long, int)}. After the first search has
+ * reached its deepest ply, a search allocates nothing, so the time taken per
+ * move does not depend on when the garbage collector runs.
+ * <p>
+ * The slots grow when a search goes deeper than the depth the arena was
+ * created with, so searches with extensions do not have to know their
+ * maximum depth. An arena is not thread-safe: every thread that searches
+ * needs an arena of its own.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public final class SearchArena {
+
+	private CheckersBoard board;
+
+	private long[][] moves;
+	private int[] undos;
+	private MoveIterator[] moveIterators;
+
+	/**
+	 * Creates an arena with slots for a search of the passed depth.
+	 * @param maxDepth - the deepest ply the search is expected to reach
+	 */
+	public SearchArena(int maxDepth) {
+		moves = new long[0][];
+		undos = new int[0];
+		moveIterators = new MoveIterator[0];
+		ensureDepth(maxDepth);
+	}
+
+	/**
+	 * Makes sure that there is a slot for every ply up to the passed depth.
+	 * @param maxDepth - the deepest ply the search is expected to reach
+	 */
+	public void ensureDepth(int maxDepth) {
+		int oldLength = moves.length;
+		if (maxDepth < oldLength)
+			return;
+
+		int length = Math.max(maxDepth + 1, oldLength * 2);
+		moves = Arrays.copyOf(moves, length);
+		undos = Arrays.copyOf(undos, length);
+		moveIterators = Arrays.copyOf(moveIterators, length);
+		for (int i = oldLength; i < length; i++) {
+			moves[i] = new long[CheckersBoard.MAX_MOVES];
+			moveIterators[i] = new MoveIterator();
+		}
+	}
+
+	/**
+	 * Returns the board the search walks, as set by
+	 * {@link #setRoot(CheckersBoard)}.
+	 * @return the board of the search
+	 */
+	public CheckersBoard getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns the passed board set to the passed position, or a clone of the
+	 * position if the board is missing or of another implementation.
+	 */
+	private static CheckersBoard copy(CheckersBoard board,
+			CheckersBoard position) {
+		if (board == null || board.getClass() != position.getClass())
+			return position.clone();
+		board.setTo(position);
+		board.freeCache();
+		return board;
+	}
+
+	/**
+	 * Returns the move buffer of the passed ply.
+	 * @param ply - the ply of the slot
+	 * @return a buffer of {@link CheckersBoard#MAX_MOVES} moves
+	 */
+	public long[] getMoves(int ply) {
+		ensureDepth(ply);
+		return moves[ply];
+	}
+
+	/**
+	 * Returns the move iterator of the passed ply. It has to be reset to the
+	 * board of the node before it is used.
+	 * @see MoveIterator#reset(CheckersBoard)
+	 * @param ply - the ply of the slot
+	 * @return the move iterator of the ply
+	 */
+	public MoveIterator getMoveIterator(int ply) {
+		ensureDepth(ply);
+		return moveIterators[ply];
+	}
+
+	/**
+	 * Makes the passed move on the search board, keeping its undo record in
+	 * the slot of the passed ply.
+	 * @param ply - the ply of the move
+	 * @param move - a move of the side to move of the search board
+	 */
+	public void makeMove(int ply, long move) {
+		undos[ply] = board.makeMove(move);
+	}
+
+	/**
+	 * Sets the search board to the passed board. The search board is only
+	 * created the first time, or if the implementation of the passed board
+	 * changes, so the board passed to a player can be searched without
+	 * cloning it.
+	 * @param root - the board at the root of the search
+	 * @return the search board, equal to the passed board
+	 */
+	public CheckersBoard setRoot(CheckersBoard root) {
+		board = copy(board, root);
+		return board;
+	}
+
+	/**
+	 * Takes back the passed move, made at the passed ply with
+	 * {@link #makeMove(int, long)}, from the search board.
+	 * @param ply - the ply of the move
+	 * @param move - the move to take back
+	 */
+	public void unmakeMove(int ply, long move) {
+		board.unmakeMove(move, undos[ply]);
+	}
+}
@@ -197,7 +197,7 @@ public class BadCheckersPlayer implements CheckersPlayerInterface {
 			if (myTimeLeft < myCutTime) {
 				return 1000;
 			}
-			int nextMoves = currB.invertCheckersBoard().getNumSuccessors();
+			int nextMoves = currB.countMoves(CheckersBoard.PLAYER2);
 			if (nextMoves == 0) {
 				if (num % 2 == 0) {
 					currB.freeCache();
@@ -297,7 +297,7 @@ public class BadCheckersPlayer implements CheckersPlayerInterface {
 			if (myTimeLeft < myCutTime) {
 				return 1000;
 			}
-			int nextMoves = currB.invertCheckersBoard().getNumSuccessors();
+			int nextMoves = currB.countMoves(CheckersBoard.PLAYER2);
 			if (nextMoves == 0) {
 				if (num % 2 == 0) {
 					currB.freeCache();
@@ -339,31 +339,11 @@ public class BadCheckersPlayer implements CheckersPlayerInterface {
 	}
 
 	private int numPieces1(CheckersBoard count) {
-		int num = 0;
-		for (int row = 0; row < 8; row++) {
-			for (int col = 0; col < 8; col++) {
-				byte contentsOfBoardSpace = count.getPiece(row, col);
-				if (contentsOfBoardSpace == CheckersBoard.PLAYER1_CHECKER
-						|| contentsOfBoardSpace == CheckersBoard.PLAYER1_KING) {
-					num++;
-				}
-			}
-		}
-		return num;
+		return count.getPieceCount(CheckersBoard.PLAYER1);
 	}
 
 	private int numPieces2(CheckersBoard count) {
-		int num = 0;
-		for (int row = 0; row < 8; row++) {
-			for (int col = 0; col < 8; col++) {
-				byte contentsOfBoardSpace = count.getPiece(row, col);
-				if (contentsOfBoardSpace == CheckersBoard.PLAYER2_CHECKER
-						|| contentsOfBoardSpace == CheckersBoard.PLAYER2_KING) {
-					num++;
-				}
-			}
-		}
-		return num;
+		return count.getPieceCount(CheckersBoard.PLAYER2);
 	}
 
 	@Override
@@ -73,34 +73,12 @@ public class BasicAI implements CheckersPlayerInterface {
 	 * player has, with kings counting for two checkers.
 	 */
 	protected double evaluateBoard(CheckersBoard theBoard) {
-		double heuristicValue = 0;
-		for (int row = 0; row < 8; row++) {
-			for (int col = 0; col < 8; col++) {
-				byte contentsOfBoardSpace = theBoard.getPiece(row, col);
-				switch (contentsOfBoardSpace) {
-
-				case CheckersBoard.PLAYER1_CHECKER:
-					heuristicValue += myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER1_KING:
-					heuristicValue += myKingValue;
-					break;
-
-				case CheckersBoard.PLAYER2_CHECKER:
-					heuristicValue -= myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER2_KING:
-					heuristicValue -= myKingValue;
-					break;
-
-				case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-				case CheckersBoard.EMPTY: // ignore the empty spaces
-					break;
-				}
-			}
-		}
+		double heuristicValue = myCheckerValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_CHECKER) - theBoard
+						.getCount(CheckersBoard.PLAYER2_CHECKER))
+				+ myKingValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_KING) - theBoard
+						.getCount(CheckersBoard.PLAYER2_KING));
 		return heuristicValue;
 	}
 
@@ -1,10 +1,12 @@
 package checkersPlayer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import checkersMain.CheckersBoard;
 import checkersMain.CheckersPlayerInterface;
+import checkersMain.SearchArena;
 
 public class CheckerKnight implements CheckersPlayerInterface {
 
@@ -21,6 +23,23 @@ public class CheckerKnight implements CheckersPlayerInterface {
 			true_red = red;
 		}
 
+		/**
+		 * Makes this node a fresh child of the passed parent, so the nodes of
+		 * the search can be reused for every move.
+		 */
+		protected BoardNode reset(MinimaxTree.MinimaxNode par,
+				CheckersBoard board, boolean red) {
+			parent = par;
+			children.clear();
+			alpha = Float.NEGATIVE_INFINITY;
+			beta = Float.POSITIVE_INFINITY;
+			value = 0;
+			preferred_child_index = 0;
+			myBoard = board;
+			true_red = red;
+			return this;
+		}
+
 		protected void deepenTree(int depth, int maxdepth) {
 			// CheckersBoard tempboard = new CheckersBoard(myBoard);
 			// if(depth % 2 == 0)
@@ -32,11 +51,13 @@ public class CheckerKnight implements CheckersPlayerInterface {
 			if (depth <= maxdepth) {
 				BoardNode temp;
 				// tempboard.invertCheckersBoard();
-				myBoard = myBoard.invertCheckersBoard();
+				long[] moves = new long[CheckersBoard.MAX_MOVES];
+				int nextmoves = myBoard.getMoves(moves);
 
-				for (int x = 0; x < myBoard.getNumSuccessors(); x++) {
-					temp = new BoardNode(this, myBoard.getSuccessor(x),
-							!true_red);
+				for (int x = 0; x < nextmoves; x++) {
+					CheckersBoard board = myBoard.clone();
+					board.makeMove(moves[x]);
+					temp = new BoardNode(this, board, !true_red);
 					//System.out.println("Potential move "+x+" of depth "+(depth
 					// +1));
 
@@ -50,8 +71,9 @@ public class CheckerKnight implements CheckersPlayerInterface {
 		protected float dynamic_minimax(int depth, int maxdepth, boolean max) {
 			if (depth <= maxdepth) {
 				BoardNode temp;
-				CheckersBoard tempboard = myBoard.invertCheckersBoard();
-				int nextmoves = tempboard.getNumSuccessors();
+				// The children share this board, which is walked in place
+				long[] moves = arena.getMoves(depth);
+				int nextmoves = myBoard.getMoves(moves);
 				boolean prune_remainder = false;
 				float bestval = 0, tempval;
 				int index = 0;
@@ -61,12 +83,12 @@ public class CheckerKnight implements CheckersPlayerInterface {
 
 				prune_remainder = false;
 				for (int x = 0; x < nextmoves; x++) {
-					temp = new BoardNode(this, tempboard.getSuccessor(x),
-							!true_red);
+					int undo = myBoard.makeMove(moves[x]);
+					temp = getNode(depth + 1).reset(this, myBoard, !true_red);
 					addChild(temp);
 					tempval = temp.dynamic_minimax(depth + 1, maxdepth, !max);
 					remChild(temp);
-					temp.myBoard.freeCache();
+					myBoard.unmakeMove(moves[x], undo);
 					temp = null;
 					/*
 					 * if(index == 0) { bestval = tempval; }
@@ -141,13 +163,15 @@ public class CheckerKnight implements CheckersPlayerInterface {
 
 		@Override
 		public void finalize() {
-			myBoard.freeCache();
+			if (myBoard != null)
+				myBoard.freeCache();
 		}
 
 		@Override
 		protected float utility_func() {
-			float util = ((true_red) ? (float) evaluateBoard(myBoard)
-					: -(float) evaluateBoard(myBoard));
+			// The board is never inverted, so it is always in this player's
+			// perspective whichever side is to move
+			float util = (float) evaluateBoard(myBoard);
 			if (util != 0) {/*
 							 * System.out.print(util);
 							 * System.out.println(true_red);
@@ -354,6 +378,12 @@ public class CheckerKnight implements CheckersPlayerInterface {
 
 	long Timeleft;
 
+	// The board and move buffers of the search, one for each depth
+	protected SearchArena arena = new SearchArena(9);
+
+	// The nodes of the search below the root, reused for every move
+	protected BoardNode[] nodes = new BoardNode[0];
+
 	public CheckerKnight() {
 		maxdepth = 9;
 	}
@@ -376,7 +406,7 @@ public class CheckerKnight implements CheckersPlayerInterface {
 		MinimaxTree tree = new MinimaxTree();
 		// CheckersBoard curboardcopy = new CheckersBoard(currentBoard);
 		// curboardcopy.invertCheckersBoard();
-		tree.root = new BoardNode(null, cpe.board.invertCheckersBoard(), false);
+		tree.root = new BoardNode(null, arena.setRoot(cpe.board), false);
 		// CheckersBoard inver_currentBoard = new CheckersBoard(currentBoard);
 		// inver_currentBoard.invertCheckersBoard();
 		// currentBoard.invertCheckersBoard();
@@ -448,40 +478,32 @@ public class CheckerKnight implements CheckersPlayerInterface {
 		 */
 	}
 
+	/**
+	 * Returns the node of the search for the passed depth, creating the
+	 * nodes the first time the search gets that deep.
+	 */
+	protected BoardNode getNode(int depth) {
+		if (depth >= nodes.length) {
+			nodes = Arrays.copyOf(nodes, depth + 1);
+			for (int i = 0; i < nodes.length; i++)
+				if (nodes[i] == null)
+					nodes[i] = new BoardNode(null, null, false);
+		}
+		return nodes[depth];
+	}
+
 	/**
 	 * Generate a heuristic value for how good theBoard is for red player.
 	 * Jeremy's simple function here just compares the number of pieces each
 	 * player has, with kings counting for three checkers.
 	 */
 	protected double evaluateBoard(CheckersBoard theBoard) {
-		double heuristicValue = 0;
-		for (int row = 0; row < 8; row++) {
-			for (int col = 0; col < 8; col++) {
-				byte contentsOfBoardSpace = theBoard.getPiece(row, col);
-				switch (contentsOfBoardSpace) {
-
-				case CheckersBoard.PLAYER1_CHECKER:
-					heuristicValue += myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER1_KING:
-					heuristicValue += myKingValue;
-					break;
-
-				case CheckersBoard.PLAYER2_CHECKER:
-					heuristicValue -= myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER2_KING:
-					heuristicValue -= myKingValue;
-					break;
-
-				case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-				case CheckersBoard.EMPTY: // ignore the empty spaces
-					break;
-				}
-			}
-		}
+		double heuristicValue = myCheckerValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_CHECKER) - theBoard
+						.getCount(CheckersBoard.PLAYER2_CHECKER))
+				+ myKingValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_KING) - theBoard
+						.getCount(CheckersBoard.PLAYER2_KING));
 		return heuristicValue;
 	}
 
@@ -1,17 +1,19 @@
 package checkersPlayer;
 
-import java.util.HashMap;
-
 import checkersMain.CheckersBoard;
 import checkersMain.CheckersPlayerInterface;
+import checkersSearch.Evaluator;
+import checkersSearch.SearchEngine;
+import checkersSearch.TranspositionTable;
 
-public class ChinookJr implements CheckersPlayerInterface {
+public class ChinookJr implements CheckersPlayerInterface, Evaluator {
 	public static final boolean DEBUG_MODE = false;
 
 	public static final byte BOARD_SIZE = 8;
 	public static final int BASIC_CHECKER_VALUE = 1;
 	public static final int BASIC_KING_VALUE = 4;
 	public static final int MINIMAX_SEARCH_DEPTH = 12;
+	public static final int TABLE_SIZE = 16;
 	public static final byte MY_CHECKER = CheckersBoard.PLAYER1_CHECKER;
 	public static final byte MY_KING = CheckersBoard.PLAYER1_KING;
 	public static final byte HIS_CHECKER = CheckersBoard.PLAYER2_CHECKER;
@@ -36,12 +38,15 @@ public class ChinookJr implements CheckersPlayerInterface {
 		}
 	}
 
-	public HashMap<String, Float> scoreCache;
-
 	public long HEUR_GEN_COUNT = 0;
 
+	/**
+	 * The search, with this player's heuristic at its leaves.
+	 */
+	protected SearchEngine engine;
+
 	public ChinookJr() {
-		scoreCache = new HashMap<String, Float>();
+		engine = new SearchEngine(this);
 	}
 
 	public int choosePlyIndex(CheckersPlayerEvent cpe) {
@@ -49,29 +54,12 @@ public class ChinookJr implements CheckersPlayerInterface {
 
 		debugPrint("Analyzing top nodes");
 		if (cpe.board.getNumSuccessors() > 1) {
-			float bestScore = minimax(cpe.board.getSuccessor(0),
-					MINIMAX_SEARCH_DEPTH);
-			debugPrint("    The score of ply 0 is " + bestScore);
-			System.gc();
-
-			for (int i = 1; i < cpe.board.getNumSuccessors(); i++) {
-				CheckersBoard currentBoard = cpe.board.getSuccessor(0);
-				float currentScore = minimax(currentBoard,
-						ChinookJr.MINIMAX_SEARCH_DEPTH);
-				debugPrint("    The score of ply " + i + " is " + currentScore);
-
-				if (currentScore > bestScore) {
-					// debugPrint ("Possible move " + i + " has score of " +
-					// currentScore);
-					bestScore = currentScore;
-					bestOption = i;
-				}
-
-				System.gc();
-			}
+			float bestScore = minimax(cpe.board, MINIMAX_SEARCH_DEPTH);
+			bestOption = Math.max(0, engine.getBestIndex());
+			debugPrint("    The score of ply " + bestOption + " is "
+					+ bestScore);
 		}
 
-		// scoreCache.clear();
 		debugPrint("HEUR_GEN_COUNT is " + HEUR_GEN_COUNT);
 		HEUR_GEN_COUNT = 0;
 		return bestOption;
@@ -82,7 +70,15 @@ public class ChinookJr implements CheckersPlayerInterface {
 	}
 
 	public void gameStarted(CheckersPlayerEvent cpe) {
-		scoreCache.clear();
+		engine.clearOrdering();
+		if (engine.getTranspositionTable() == null)
+			engine.setTranspositionTable(new TranspositionTable(TABLE_SIZE));
+		else
+			engine.getTranspositionTable().clear();
+	}
+
+	public float evaluate(CheckersBoard board) {
+		return generateSingleStateHeuristic(board);
 	}
 
 	protected float generateSingleStateHeuristic(CheckersBoard board) {
@@ -99,7 +95,7 @@ public class ChinookJr implements CheckersPlayerInterface {
 				+ " using the minimax search algorithm and a"
 				+ " heuristic based on game piece positions and"
 				+ " quantity. Features include alpha-beta pruning"
-				+ " and minimax value-caching."
+				+ " and principal variation search."
 				+ "\n\nAuthor: Matt Millar\nVersion: 1.10 - 9 August 2008";
 	}
 
@@ -112,92 +108,51 @@ public class ChinookJr implements CheckersPlayerInterface {
 
 	protected float getPieceCountScore(CheckersBoard board) {
 		HEUR_GEN_COUNT++;
-		float pieceScore = 0;
-		for (int row = 0; row < BOARD_SIZE; row++) {
-			for (int col = 0; col < BOARD_SIZE; col++) {
-				if (board.getPiece(row, col) == MY_CHECKER) {
-					pieceScore += ChinookJr.BASIC_CHECKER_VALUE;
-				} else if (board.getPiece(row, col) == MY_KING) {
-					pieceScore += ChinookJr.BASIC_KING_VALUE;
-				} else if (board.getPiece(row, col) == HIS_CHECKER) {
-					pieceScore -= ChinookJr.BASIC_CHECKER_VALUE;
-				} else if (board.getPiece(row, col) == HIS_KING) {
-					pieceScore -= ChinookJr.BASIC_KING_VALUE;
-				}
-			}
-		}
+		// The search does not invert the board, so the pieces of the side to
+		// move are this player's pieces
+		boolean player1 = board.getSideToMove() == CheckersBoard.PLAYER1;
+		byte myChecker = player1 ? MY_CHECKER : HIS_CHECKER;
+		byte myKing = player1 ? MY_KING : HIS_KING;
+		byte hisChecker = player1 ? HIS_CHECKER : MY_CHECKER;
+		byte hisKing = player1 ? HIS_KING : MY_KING;
+
+		float pieceScore = ChinookJr.BASIC_CHECKER_VALUE
+				* (board.getCount(myChecker) - board.getCount(hisChecker))
+				+ ChinookJr.BASIC_KING_VALUE
+				* (board.getCount(myKing) - board.getCount(hisKing));
 
-		board.freeCache();
-		board = null;
 		return pieceScore;
 	}
 
 	protected float getPiecePositionScore(CheckersBoard board) {
+		boolean player1 = board.getSideToMove() == CheckersBoard.PLAYER1;
+		byte myChecker = player1 ? MY_CHECKER : HIS_CHECKER;
+		byte hisChecker = player1 ? HIS_CHECKER : MY_CHECKER;
 		float positionScore = 0;
 
 		for (int row = 0; row < ChinookJr.BOARD_SIZE; row++) {
+			// Rows are counted from this player's side of the board
+			int myRow = player1 ? row : BOARD_SIZE - 1 - row;
 			for (int col = 0; col < ChinookJr.BOARD_SIZE; col++) {
 				byte piece = board.getPiece(row, col);
 
-				if (piece == HIS_CHECKER) {
-					positionScore -= (row + 1);
-				} else if (piece == MY_CHECKER) {
-					positionScore += BOARD_SIZE - (row + 1);
+				if (piece == hisChecker) {
+					positionScore -= (myRow + 1);
+				} else if (piece == myChecker) {
+					positionScore += BOARD_SIZE - (myRow + 1);
 				}
 			}
 		}
 
-		board = null;
 		return positionScore;
 	}
 
-	protected String getStorableBoardString(CheckersBoard board) {
-		String boardString = "";
-		for (int i = 0; i < NUMBER_OF_ACTIVE_SQUARES; i++) {
-			boardString = boardString.concat(Byte.toString(board.getPiece(i)));
-		}
-
-		return boardString;
-	}
-
+	/**
+	 * Returns the minimax value of the passed board for its side to move,
+	 * searched to the passed depth. The best move is left in the engine.
+	 */
 	public float minimax(CheckersBoard board, int depth) {
-		return minimax(board, depth, Float.MIN_VALUE, Float.MIN_VALUE + 1);
-	}
-
-	protected float minimax(CheckersBoard board, int depth, float alpha,
-			float beta) {
-		float minimaxValue = 0;
-
-		if (depth == 8) {
-			System.gc();
-		}
-
-		if (board.getNumSuccessors() == 0 || depth == 0) {
-			minimaxValue = generateSingleStateHeuristic(board);
-			return minimaxValue;
-		} else if (scoreCache.containsKey(getStorableBoardString(board))) {
-			minimaxValue = scoreCache.get(getStorableBoardString(board));
-			return minimaxValue;
-		} else {
-			for (byte i = 0; i < board.getNumSuccessors(); i++) {
-				alpha = Math.max(alpha, minimax(board.getSuccessor(i)
-						.invertCheckersBoard(), depth - 1, -1 * beta, -1
-						* alpha));
-
-				if (alpha > beta) {
-					break;
-				}
-			}
-
-			minimaxValue = alpha;
-			if (!scoreCache.containsKey(getStorableBoardString(board))) {
-				scoreCache.put(getStorableBoardString(board), minimaxValue);
-			}
-			board = null;
-		}
-
-		board = null;
-		return minimaxValue;
+		return engine.search(board, depth);
 	}
 
 	public void remainingTimeChanged(CheckersPlayerEvent cpe) {
@@ -1,7 +1,10 @@
 package checkersPlayer;
 
+import java.util.Arrays;
+
 import checkersMain.CheckersBoard;
 import checkersMain.CheckersPlayerInterface;
+import checkersMain.SearchArena;
 
 public class EFCheckersPlayer implements CheckersPlayerInterface {
 
@@ -10,6 +13,12 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 	// public static int turncount = 0;
 	int number = 0;
 
+	// The number of plies searched
+	protected static final int SEARCH_DEPTH = 6;
+
+	// The board and move buffers of the search
+	protected SearchArena arena = new SearchArena(SEARCH_DEPTH);
+
 	/**
 	 * See CheckersPlayer.java for a detailed description of takeTurn. Note:
 	 * "@Override" confirms that takeTurn is supposed to be an implementation of
@@ -18,77 +27,32 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 	@Override
 	public int choosePlyIndex(CheckersPlayerEvent cpe) {
 		double BestHeurPly = Integer.MIN_VALUE; // empty
-		double BestHeurPly2 = Integer.MIN_VALUE; // my move
-		double BestHeurPly3 = Integer.MIN_VALUE; // opponents move
-		double BestHeurPly4 = Integer.MIN_VALUE; // my move
-		double BestHeurPly5 = Integer.MIN_VALUE; // my opponents move
-		double BestHeurPly6 = Integer.MIN_VALUE; // my move
-		double BestHeurPly7 = Integer.MIN_VALUE; // my opponents move
-		// double currheuristic1 = 0;
-		double currheuristic2 = 0;
-		double currheuristic3 = 0;
-		double currheuristic4 = 0;
-		double currheuristic5 = 0;
-		double currheuristic6 = 0;
-		double currheuristic7 = 0;
+		/*
+		 * The best values found so far for each ply of the search: my move,
+		 * my opponents move, my move, my opponents move, my move and my
+		 * opponents move.
+		 */
+		double[] bestHeurPlies = new double[SEARCH_DEPTH];
+		Arrays.fill(bestHeurPlies, Integer.MIN_VALUE);
 
 		double totalHeuristicValue = Integer.MIN_VALUE;
 		int maxHeuristicIndex = -1;
 
-		for (int i = 0; i < cpe.board.getNumSuccessors(); i++) {
-
-			CheckersBoard board2 = cpe.board.getSuccessor(i);
-			currheuristic2 = evaluateBoard(board2, cpe.moveCount);
-			if (currheuristic2 > BestHeurPly2)
-				BestHeurPly2 = currheuristic2;
-			board2 = board2.invertCheckersBoard();
-
-			for (int j = 0; j < board2.getNumSuccessors(); j++) {
-
-				CheckersBoard board3 = board2.getSuccessor(j);
-				currheuristic3 = evaluateOppBoard(board3);
-				if (currheuristic3 > BestHeurPly3)
-					BestHeurPly3 = currheuristic3;
-				board3 = board3.invertCheckersBoard();
-
-				for (int k = 0; k < board3.getNumSuccessors(); k++) {
-					CheckersBoard board4 = board3.getSuccessor(k);
-					currheuristic4 = evaluateBoard(board4, cpe.moveCount);
-					if (currheuristic4 > BestHeurPly4) {
-						BestHeurPly4 = currheuristic4;
-					}
-					board4 = board4.invertCheckersBoard();
-
-					for (int l = 0; l < board4.getNumSuccessors(); l++) {
-						CheckersBoard board5 = board4.getSuccessor(l);
-						currheuristic5 = evaluateOppBoard(board5);
-						if (currheuristic5 > BestHeurPly5) {
-							BestHeurPly5 = currheuristic5;
-						}
-						board5 = board5.invertCheckersBoard();
-
-						for (int m = 0; m < board5.getNumSuccessors(); m++) {
-							CheckersBoard board6 = board5.getSuccessor(m);
-							currheuristic6 = evaluateBoard(board6,
-									cpe.moveCount);
-							if (currheuristic6 > BestHeurPly6) {
-								BestHeurPly6 = currheuristic6;
-							}
-							board6 = board6.invertCheckersBoard();
-
-							for (int n = 0; n < board6.getNumSuccessors(); n++) {
-								currheuristic7 = evaluateOppBoard(board6
-										.getSuccessor(n));
-								if (currheuristic7 > BestHeurPly7) {
-									BestHeurPly7 = currheuristic7;
-								}
-							}
-						}
-					}
-				}
-			}
-			BestHeurPly = BestHeurPly2 - BestHeurPly3 + BestHeurPly4
-					- BestHeurPly5 + BestHeurPly6 - BestHeurPly7;
+		// The board is walked in place, so it stays in my perspective
+		CheckersBoard board = arena.setRoot(cpe.board);
+		long[] moves = arena.getMoves(0);
+		int numMoves = board.getMoves(moves);
+		for (int i = 0; i < numMoves; i++) {
+			int undo = board.makeMove(moves[i]);
+			double currheuristic2 = evaluateBoard(board, cpe.moveCount);
+			if (currheuristic2 > bestHeurPlies[0])
+				bestHeurPlies[0] = currheuristic2;
+			findBestHeurPlies(board, 1, cpe.moveCount, bestHeurPlies);
+			board.unmakeMove(moves[i], undo);
+
+			BestHeurPly = bestHeurPlies[0] - bestHeurPlies[1]
+					+ bestHeurPlies[2] - bestHeurPlies[3] + bestHeurPlies[4]
+					- bestHeurPlies[5];
 			if (BestHeurPly > totalHeuristicValue) {
 				totalHeuristicValue = BestHeurPly;
 				maxHeuristicIndex = i;
@@ -121,35 +85,45 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 		return maxHeuristicIndex;
 	}
 
-	protected double evaluateBoard(CheckersBoard theBoard, int turnCount) {
-		double heuristicValue = 0;
-		for (int row = 0; row < 8; row++) {
-			for (int col = 0; col < 8; col++) {
-				byte contentsOfBoardSpace = theBoard.getPiece(row, col);
-				switch (contentsOfBoardSpace) {
-
-				case CheckersBoard.PLAYER1_CHECKER:
-					heuristicValue += myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER1_KING:
-					heuristicValue += myKingValue;
-					break;
-
-				case CheckersBoard.PLAYER2_CHECKER:
-					heuristicValue -= myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER2_KING:
-					heuristicValue -= myKingValue;
-					break;
-
-				case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-				case CheckersBoard.EMPTY: // ignore the empty spaces
-					break;
-				}
-			}
+	/**
+	 * Searches every ply of the side to move on the passed board, keeping the
+	 * best value of each depth in bestHeurPlies. My moves are evaluated with
+	 * {@link #evaluateBoard(CheckersBoard, int)} and my opponents moves with
+	 * {@link #evaluateOppBoard(CheckersBoard)}. The board is walked with
+	 * makeMove and unmakeMove, so it is never inverted.
+	 * 
+	 * @param board
+	 *            - the board to search, in my perspective
+	 * @param depth
+	 *            - the depth of the plies of the board
+	 * @param turnCount
+	 *            - the move count of the game
+	 * @param bestHeurPlies
+	 *            - the best values found so far, indexed by depth
+	 */
+	protected void findBestHeurPlies(CheckersBoard board, int depth,
+			int turnCount, double[] bestHeurPlies) {
+		long[] moves = arena.getMoves(depth);
+		int numMoves = board.getMoves(moves);
+		for (int i = 0; i < numMoves; i++) {
+			int undo = board.makeMove(moves[i]);
+			double currheuristic = depth % 2 == 0 ? evaluateBoard(board,
+					turnCount) : evaluateOppBoard(board);
+			if (currheuristic > bestHeurPlies[depth])
+				bestHeurPlies[depth] = currheuristic;
+			if (depth + 1 < SEARCH_DEPTH)
+				findBestHeurPlies(board, depth + 1, turnCount, bestHeurPlies);
+			board.unmakeMove(moves[i], undo);
 		}
+	}
+
+	protected double evaluateBoard(CheckersBoard theBoard, int turnCount) {
+		double heuristicValue = myCheckerValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_CHECKER) - theBoard
+						.getCount(CheckersBoard.PLAYER2_CHECKER))
+				+ myKingValue
+				* (theBoard.getCount(CheckersBoard.PLAYER1_KING) - theBoard
+						.getCount(CheckersBoard.PLAYER2_KING));
 		if (turnCount == 0) {
 			byte BoardSpace1 = theBoard.getPiece(4, 7);
 			switch (BoardSpace1) {
@@ -249,6 +223,11 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 			return heuristicValue;
 	}
 
+	/**
+	 * Evaluates the material of the passed board from my opponents
+	 * perspective. The board is in my perspective, so my opponents pieces are
+	 * the Player2 pieces.
+	 */
 	protected double evaluateOppBoard(CheckersBoard theBoard) {
 		double heuristicValue = 0;
 		for (int row = 0; row < 8; row++) {
@@ -256,19 +235,19 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 				byte contentsOfBoardSpace = theBoard.getPiece(row, col);
 				switch (contentsOfBoardSpace) {
 
-				case CheckersBoard.PLAYER1_CHECKER:
+				case CheckersBoard.PLAYER2_CHECKER:
 					heuristicValue += myCheckerValue;
 					break;
 
-				case CheckersBoard.PLAYER1_KING:
+				case CheckersBoard.PLAYER2_KING:
 					heuristicValue += myKingValue;
 					break;
 
-				case CheckersBoard.PLAYER2_CHECKER:
+				case CheckersBoard.PLAYER1_CHECKER:
 					heuristicValue -= myCheckerValue;
 					break;
 
-				case CheckersBoard.PLAYER2_KING:
+				case CheckersBoard.PLAYER1_KING:
 					heuristicValue -= myKingValue;
 					break;
 
@@ -291,27 +270,7 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 	}
 
 	public double getCenter(CheckersBoard theBoard, int turnCount) {
-		double CenterValueIn = 0;
-		for (int row = 2; row < 6; row++) {
-			for (int col = 2; col < 6; col++) {
-				byte contentsOfBoardSpace = theBoard.getPiece(row, col);
-				switch (contentsOfBoardSpace) {
-
-				case CheckersBoard.PLAYER1_CHECKER:
-					CenterValueIn += myCheckerValue;
-					break;
-
-				case CheckersBoard.PLAYER1_KING:
-					CenterValueIn += myKingValue;
-					break;
-
-				case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-				case CheckersBoard.EMPTY: // ignore the empty spaces
-					break;
-				}
-			}
-
-		}
+		double CenterValueIn = getValueIn(theBoard, CheckersBoard.CENTER);
 		double heuristicCenterValue;
 		heuristicCenterValue = CenterValueIn + 2 - 0.01 * turnCount;
 		return heuristicCenterValue;
@@ -326,48 +285,24 @@ public class EFCheckersPlayer implements CheckersPlayerInterface {
 	}
 
 	public double getEdge(CheckersBoard theBoard, int turnCount) {
-		double EdgeValueIn = 0;
-		int col = 0;
-		for (int row = 0; row < 8; row++) {
-			byte contentsOfBoardSpace = theBoard.getPiece(row, col);
-			switch (contentsOfBoardSpace) {
-
-			case CheckersBoard.PLAYER1_CHECKER:
-				EdgeValueIn += myCheckerValue;
-				break;
-
-			case CheckersBoard.PLAYER1_KING:
-				EdgeValueIn += myKingValue;
-				break;
-
-			case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-			case CheckersBoard.EMPTY: // ignore the empty spaces
-				break;
-			}
-		}
-		int col2 = 7;
-		for (int row = 0; row < 8; row++) {
-			byte contentsOfBoardSpace = theBoard.getPiece(row, col2);
-			switch (contentsOfBoardSpace) {
-
-			case CheckersBoard.PLAYER1_CHECKER:
-				EdgeValueIn += myCheckerValue;
-				break;
-
-			case CheckersBoard.PLAYER1_KING:
-				EdgeValueIn += myKingValue;
-				break;
-
-			case CheckersBoard.OFFBOARD: // ignore the off-diagonal spaces
-			case CheckersBoard.EMPTY: // ignore the empty spaces
-				break;
-			}
-		}
+		double EdgeValueIn = getValueIn(theBoard, CheckersBoard.EDGES);
 		double heuristicEdgeValue;
 		heuristicEdgeValue = EdgeValueIn + 0.02 * turnCount;
 		return heuristicEdgeValue;
 	}
 
+	/**
+	 * Returns the value of my pieces on the board locations of the passed
+	 * mask, counted from the piece masks of the board.
+	 */
+	protected double getValueIn(CheckersBoard theBoard, int area) {
+		int kings = theBoard.getKings(CheckersBoard.PLAYER1) & area;
+		int checkers = theBoard.getPieces(CheckersBoard.PLAYER1) & area
+				& ~kings;
+		return myCheckerValue * Integer.bitCount(checkers) + myKingValue
+				* Integer.bitCount(kings);
+	}
+
 	@Override
 	public String getName() {
 		return "EFCheckers";
@@ -444,6 +444,8 @@ public class HAL1000 extends HAL900 {
 
 	public HAL1000() {
 		super();
+		// The neural network can only evaluate one board at a time
+		setNumThreads(1);
 	}
 
 	@Override
@@ -452,10 +454,18 @@ public class HAL1000 extends HAL900 {
 		return super.choosePlyIndex(cpe);
 	}
 
+	/**
+	 * Evaluates the board with the neural network, which values boards in the
+	 * perspective of Player1. The neural network keeps the outputs of its
+	 * neurons, so the evaluations of several search threads take turns.
+	 */
 	@Override
-	protected float evaluateBoard(CheckersBoard board, boolean max,
-			int minMoves, int maxMoves, int levels) {
-		return neuralNetwork.getValue();
+	public float evaluate(CheckersBoard board) {
+		float value;
+		synchronized (neuralNetwork) {
+			value = neuralNetwork.getValue();
+		}
+		return board.getSideToMove() == CheckersBoard.PLAYER1 ? value : -value;
 	}
 
 	@Override
@@ -16,13 +16,7 @@ public class HAL1000S extends HAL1000 {
 	public static final String VERSION = HAL1000.VERSION;
 	
 	public HAL1000S() {
-		reduceTimes = new int[] { 1000 };
-	}
-
-	@Override
-	protected void calcSearchDepth() {
-		searchDepth = MIN_SEARCH_DEPTH;
-		maxSearchDepth = searchDepth + 2;
+		maxSearchDepth = MIN_SEARCH_DEPTH;
 	}
 
 	@Override
@@ -1,20 +1,24 @@
 package checkersPlayer;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import checkersMain.CheckersBoard;
 import checkersMain.CheckersPlayerInterface;
+import checkersSearch.Evaluator;
+import checkersSearch.LazySmpSearch;
+import checkersSearch.SearchEngine;
+import checkersSearch.TranspositionTable;
+import checkersSearch.YbwcSearch;
 
 /**
  * The HAL900 is an advanced Artificial Intelligence for Checkers. It uses a
- * depth-limited search and a mini-max algorithm with alpha-beta pruning.
+ * depth-limited search and a mini-max algorithm with alpha-beta pruning, run
+ * on several threads with this player as its {@link Evaluator}, either by a
+ * {@link LazySmpSearch} or, with tree splitting, by a {@link YbwcSearch}.
  * 
  * @author Amos Yuen and Louis Wang
  * @version {@value #VERSION}
  */
 
-public class HAL900 implements CheckersPlayerInterface {
+public class HAL900 implements CheckersPlayerInterface, Evaluator {
 	public static final String VERSION = "1.15 - 16 August 2008";
 
 	/**
@@ -27,9 +31,7 @@ public class HAL900 implements CheckersPlayerInterface {
 	 * evaluation of the {@link CheckersBoard}.
 	 */
 	protected static final float PLIES_FACTOR = 0.060f;
-	protected static final int END_GAME_VALUE = 1000;
 	protected static final float DRAW_VALUE = -5f;
-	protected static final float THRESHOLD = 0.001f;
 
 	protected static final float CHECKER_VALUE = 1.0f;
 	protected static final float KING_VALUE = 1.6f;
@@ -39,43 +41,33 @@ public class HAL900 implements CheckersPlayerInterface {
 	protected static final int MIN_RETURN_gTIME = 1000;
 
 	protected static final int MIN_SEARCH_DEPTH = 5;
+	/**
+	 * The size of the transposition table in megabytes.
+	 */
+	protected static final int TABLE_SIZE = 16;
 
-	protected int nodesSearched;
-	protected int branchingCount;
-	protected int branchingFactor;
-	protected float averageBranchingFactor;
-
-	protected float nodesPerMillisecond = 100;
-	protected int searchDepth;
-	protected int maxSearchDepth;
+	protected int maxSearchDepth = SearchEngine.MAX_DEPTH;
 
-	protected int remainingTime;
 	protected int moveCount;
 
 	protected int maxMoves;
-	protected int[] reduceTimes;
-
-	protected int reducedIndex;
-
-	public HAL900() {
-		reduceTimes = new int[] { 2500, 1750, 1000 };
-	}
 
 	/**
-	 * Calculate the searchDepth and maxSearchDepth based on the
-	 * averageBranchingFactor and nodesPerMillisecond.
+	 * The number of threads the search runs on.
 	 */
-	protected void calcSearchDepth() {
-		/*
-		 * Calculate the approximate number of nodes that this AI should be able
-		 * to search using the remainingTime.
-		 */
-		int numSearchableNodes = (int) (remainingTime * TARGET_TIME_RATIO * nodesPerMillisecond);
-		searchDepth = MIN_SEARCH_DEPTH;
+	protected int numThreads = Runtime.getRuntime().availableProcessors();
+	/**
+	 * Whether the search splits the tree between its threads, rather than
+	 * having them share a transposition table.
+	 */
+	protected boolean treeSplitting;
+	/**
+	 * The search, created by {@link #createEngine()} whenever its threads are
+	 * changed.
+	 */
+	protected SearchEngine engine = createEngine();
 
-		searchDepth = (int) ((float) Math.log(numSearchableNodes) / (float) Math
-				.log(averageBranchingFactor));
-		maxSearchDepth = searchDepth + 2;
+	public HAL900() {
 	}
 
 	@Override
@@ -84,53 +76,20 @@ public class HAL900 implements CheckersPlayerInterface {
 		if (cpe.board.getNumSuccessors() == 1)
 			return 0;
 
-		remainingTime = cpe.remainingPlyTime;
 		moveCount = cpe.moveCount;
 		maxMoves = cpe.maxMoves;
-		calcSearchDepth();
-
-		reducedIndex = 0;
-
-		nodesSearched = 0;
-		branchingFactor = 0;
-		branchingCount = 0;
 
 		/*
 		 * System.out.println(getName() + " Ply - " +
 		 * cpe.board.getNumSuccessors() + " Possible Plies");
-		 * System.out.println("searchDepth: " + searchDepth +
-		 * " maxSearchDepth: " + maxSearchDepth);
 		 */
 
-		int index = search(cpe.board);
-
-		int timePassed = Math.max(1, cpe.remainingPlyTime - remainingTime);
-
-		// Calculate number of nodes searched per millisecond
-		// and average it with the old nodesPerMillisecond
-		nodesPerMillisecond = (nodesPerMillisecond + (float) nodesSearched
-				/ timePassed) / 2f;
-
-		// Calculate the average branching factor
-		// and average it with the old averageBranchingFactor
-		averageBranchingFactor = (averageBranchingFactor + (float) branchingFactor
-				/ branchingCount) / 2f;
-
-		// System.out.println("Average Branching: " + averageBranchingFactor);
-		// System.out.println("NodesSearched: " + nodesSearched);
-		// System.out.println("NodesPerMillisecond: " + nodesPerMillisecond);
-		/*
-		 * int milliseconds = timePassed % 1000; int seconds = timePassed /
-		 * 1000; System.out.println("Ply Time Taken: " + seconds + "." +
-		 * milliseconds);
-		 */
-
-		return index;
+		return search(cpe.board, getTimeBudget(cpe.remainingPlyTime));
 	}
 
 	/**
-	 * Evaluates the value of the board in the perspective of Player1. It counts
-	 * the number of pieces, each piece is assigned a value:
+	 * Evaluates the value of the board in the perspective of its side to move.
+	 * It counts the number of pieces, each piece is assigned a value:
 	 * <p>
 	 * <ul>
 	 * <li>{@link CheckersBoard#PLAYER1_CHECKER} = {@value #CHECKER_VALUE}
@@ -140,32 +99,18 @@ public class HAL900 implements CheckersPlayerInterface {
 	 * </ul>
 	 * Also, checker's values increase as they reach the king row and the
 	 * enemy's score is multiplied by {@value ENEMY_FACTOR}. And the number of
-	 * possible plies that max (this player) and min (the opponent player) can
-	 * take is used. This method considers that reducing the opponents possible
-	 * plies and increasing this player's possible plies as favourable.
+	 * possible plies that Player1 (this player) and Player2 (the opponent
+	 * player) can take is used. This method considers that reducing the
+	 * opponents possible plies and increasing this player's possible plies as
+	 * favourable.
 	 * 
 	 * @param board
 	 *            - the {@link CheckersBoard} to evaluate
-	 * @param player1
-	 *            - if true, it is Player1's ply (max); if false, it is
-	 *            Player2's ply (min)
-	 * @param player1Plies
-	 *            - the number of possible Player1 (max) plies in total for this
-	 *            branch of the search space
-	 * @param player2Plies
-	 *            - the number of possible Player2 (min) plies in total for this
-	 *            branch of the search space
-	 * @param depth
-	 *            - the depth of this board in the search space form the current
-	 *            board
-	 * @return the mini-max value of the passed {@link CheckersBoard} (as a leaf
-	 *         node)
+	 * @return the value of the passed {@link CheckersBoard} (as a leaf node)
+	 *         for its side to move
 	 */
-	protected float evaluateBoard(CheckersBoard board, boolean player1,
-			int player1Plies, int player2Plies, int depth) {
-		if (!player1)
-			board = board.invertCheckersBoard();
-
+	@Override
+	public float evaluate(CheckersBoard board) {
 		float player1Value = 0, player2Value = 0;
 
 		for (byte i = 0; i < 32; i++) {
@@ -187,17 +132,24 @@ public class HAL900 implements CheckersPlayerInterface {
 			}
 		}
 
-		int player1PlyDepth = Math.max(1, depth / 2);
-		int player2PlyDepth = Math.max(1, depth / 2);
-		if (player1)
-			player1PlyDepth++;
-
 		float heuristicValue = player1Value - player2Value
 				* ENEMY_FACTOR + PLIES_FACTOR
-				* ((float) player1Plies / player1PlyDepth
-						- (float) player2Plies / player2PlyDepth);
+				* (board.countMoves(CheckersBoard.PLAYER1) - board
+						.countMoves(CheckersBoard.PLAYER2));
 
-		return heuristicValue;
+		return board.getSideToMove() == CheckersBoard.PLAYER1 ? heuristicValue
+				: -heuristicValue;
+	}
+
+	/**
+	 * Returns a search with the threads set for this player.
+	 * 
+	 * @return a {@link YbwcSearch} if the tree is split, otherwise a
+	 *         {@link LazySmpSearch}
+	 */
+	protected SearchEngine createEngine() {
+		return treeSplitting ? new YbwcSearch(this, numThreads)
+				: new LazySmpSearch(this, numThreads);
 	}
 
 	@Override
@@ -206,8 +158,14 @@ public class HAL900 implements CheckersPlayerInterface {
 
 	@Override
 	public void gameStarted(CheckersPlayerEvent cpe) {
-		branchingFactor = 6;
-		branchingCount = 1;
+		engine.clearOrdering();
+
+		// The table is only created when the player plays, as every player
+		// is instantiated when the players are loaded
+		if (engine.getTranspositionTable() == null)
+			engine.setTranspositionTable(new TranspositionTable(TABLE_SIZE));
+		else
+			engine.getTranspositionTable().clear();
 	}
 
 	@Override
@@ -219,176 +177,112 @@ public class HAL900 implements CheckersPlayerInterface {
 				+ "\n\nAuthor: Amos Yuen and Louis Wang\nVersion: " + VERSION;
 	}
 
+	@Override
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+
 	/**
-	 * Searches the possible plies for the passes board using a mini-max search
-	 * algorithm with alpha-beta pruning.
+	 * Returns the number of threads this player searches with.
 	 * 
-	 * @param board
-	 *            - the {@link CheckersBoard} to be searched
-	 * @param player1
-	 *            - if true, it is Player1's ply (max); if false, it is
-	 *            Player2's ply (min)
-	 * @param parentValue
-	 *            - the mini-max value of the parent board
-	 * @param player1Plies
-	 *            - the number of possible Player1 (max) plies in total for this
-	 *            branch of the search space
-	 * @param player2Plies
-	 *            - the number of possible Player2 (min) plies in total for this
-	 *            branch of the search space
-	 * @param searchedDepth
-	 *            - the depth that has been searched so far
-	 * @param remainingSearchDepthModifer
-	 *            - a modifier added to the searchDepth to determine the
-	 *            remaining depth to search
-	 * @return the mini-max value of this board
+	 * @return the number of threads
 	 */
-	protected float getMinimaxValue(CheckersBoard board, boolean player1,
-			float parentValue, int player1Plies, int player2Plies,
-			int searchedDepth, int remainingSearchDepthModifer) {
-		/*
-		 * System.out.println("searchedDepth: " + searchedDepth +
-		 * " searchDepth: " + searchDepth);
-		 */
-
-		// Invert the board and update statistics.
-		board = board.invertCheckersBoard();
-		int numSuccessors = board.getNumSuccessors();
-		branchingFactor += numSuccessors;
-		branchingCount++;
-		nodesSearched++;
-		if (player1)
-			player1Plies += numSuccessors;
-		else
-			player2Plies += numSuccessors;
-
-		/*
-		 * Evaluates and returns the board if this branch has reached its
-		 * desired search depth, has reached the maximum search depth, or the
-		 * next player has zero plies.
-		 */
-		if (searchDepth + remainingSearchDepthModifer <= 0
-				|| searchedDepth >= maxSearchDepth || numSuccessors == 0) {
-
-			// End game boards are assigned special values
-			if (board.getNumSuccessors() == 0) {
-				if (player1)
-					return -END_GAME_VALUE + searchedDepth;
-				else
-					return END_GAME_VALUE - searchedDepth;
-			}
+	public int getNumThreads() {
+		return numThreads;
+	}
 
-			return evaluateBoard(board, player1, player1Plies, player2Plies,
-					searchedDepth + 1);
-		} else if (player1 && searchedDepth / 2 + moveCount > maxMoves)
-			return DRAW_VALUE;
+	/**
+	 * Returns whether the search splits the tree between its threads.
+	 * 
+	 * @return whether the tree is split
+	 */
+	public boolean isTreeSplitting() {
+		return treeSplitting;
+	}
 
-		float value;
-		if (player1)
-			value = Float.NEGATIVE_INFINITY;
-		else
-			value = Float.POSITIVE_INFINITY;
-
-		// If there are 2 or less possible plies, search deeper.
-		if (numSuccessors > 2)
-			remainingSearchDepthModifer--;
-
-		// Goes through the list of successors
-		player1 = !player1;
-		searchedDepth++;
-		for (int i = 0; i < numSuccessors; i++) {
-			float childValue = getMinimaxValue(board.getSuccessor(i), player1,
-					value, player1Plies, player2Plies, searchedDepth,
-					remainingSearchDepthModifer);
-			/*
-			 * Take the maximum or minimum value depending on if this is a
-			 * Player1 (max) or Player2 (min) ply respectively. Also compares
-			 * the value to the parent value for alpha-beta pruning. Note: that
-			 * boolean 'player1' has been reversed before this loop.
-			 */
-			if (player1) {
-				value = Math.min(value, childValue);
-				if (value < parentValue)
-					break;
-			} else {
-				value = Math.max(value, childValue);
-				if (value > parentValue)
-					break;
-			}
+	@Override
+	public void setName(String newName) {}
 
-			// Check if searchDepth has been reduced.
-			if (searchDepth + remainingSearchDepthModifer <= 0
-					|| searchedDepth >= maxSearchDepth)
-				break;
-		}
+	/**
+	 * Sets the number of threads this player searches with. The threads
+	 * share a transposition table and share out the search of the plies.
+	 * 
+	 * @param numThreads
+	 *            - the number of threads, at least one
+	 */
+	public void setNumThreads(int numThreads) {
+		if (numThreads < 1)
+			throw new IllegalArgumentException("Invalid number of threads: "
+					+ numThreads);
+		if (numThreads == this.numThreads)
+			return;
+		this.numThreads = numThreads;
+		replaceEngine();
+	}
 
-		// Free the cache
-		board.freeCache();
-		return value;
+	/**
+	 * Sets whether the search splits the tree between its threads, with the
+	 * Young Brothers Wait Concept, rather than having them search the whole
+	 * tree with a shared transposition table. Splitting the tree gains more
+	 * on short searches, where the threads have little to share.
+	 * 
+	 * @param treeSplitting
+	 *            - whether to split the tree
+	 */
+	public void setTreeSplitting(boolean treeSplitting) {
+		if (treeSplitting == this.treeSplitting)
+			return;
+		this.treeSplitting = treeSplitting;
+		replaceEngine();
 	}
 
-	@Override
-	public String getName() {
-		return getClass().getSimpleName();
+	/**
+	 * Replaces the search with a new one from {@link #createEngine()}, which
+	 * keeps the transposition table of the old one.
+	 */
+	private void replaceEngine() {
+		SearchEngine oldEngine = engine;
+		engine = createEngine();
+		engine.setTranspositionTable(oldEngine.getTranspositionTable());
+		oldEngine.shutdown();
 	}
 
-	@Override
-	public void setName(String newName) {}
+	/**
+	 * Returns the time that the search of a ply may take. It leaves
+	 * {@value #MIN_RETURN_gTIME} milliseconds to return the ply, but uses at
+	 * least half of the remaining time.
+	 * 
+	 * @param remainingPlyTime
+	 *            - the time remaining for the ply, in milliseconds
+	 * @return the time budget of the search, in milliseconds
+	 */
+	protected int getTimeBudget(int remainingPlyTime) {
+		return Math.max(remainingPlyTime / 2, Math.min(
+				(int) (remainingPlyTime * TARGET_TIME_RATIO), remainingPlyTime
+						- MIN_RETURN_gTIME));
+	}
 
 	@Override
 	public void remainingTimeChanged(CheckersPlayerEvent cpe) {
-		this.remainingTime = cpe.remainingPlyTime;
-
-		if (reducedIndex < reduceTimes.length
-				&& remainingTime < reduceTimes[reducedIndex]) {
-
-			reducedIndex++;
-			if (reducedIndex == reduceTimes.length - 1)
-				searchDepth = maxSearchDepth = 0;
-			else {
-				searchDepth--;
-				maxSearchDepth--;
-			}
-
-			/*
-			 * System.out.println("Search Depth Reduced to: " + searchDepth +
-			 * " maxSearchDepth: " + maxSearchDepth);
-			 */
-		}
+		// The search keeps to its own time budget
 	}
 
 	/**
 	 * Starts the min-max search and returns the index of the ply with the best
-	 * mini-max value.
+	 * mini-max value. The search is deepened one ply at a time until the time
+	 * budget runs out or {@link #maxSearchDepth} is reached. Boards past the
+	 * move limit of the game are draws, worth {@value #DRAW_VALUE} to this
+	 * player.
 	 * 
 	 * @param board
 	 *            - the {@link CheckersBoard} to be searched
+	 * @param timeBudget
+	 *            - the time the search may take, in milliseconds
 	 * @return the index of the ply with the best mini-max value
 	 */
-	protected int search(CheckersBoard board) {
-		int numSuccessors = board.getNumSuccessors();
-		int change = -1;
-		if (numSuccessors <= 2)
-			change++;
-
-		branchingFactor = numSuccessors;
-		branchingCount = 1;
-
-		List<Byte> indices = new LinkedList<Byte>();
-		indices.add((byte) 0);
-		float maxValue = Float.NEGATIVE_INFINITY;
-
-		for (byte i = 0; i < numSuccessors && searchDepth > 0; i++) {
-			float value = getMinimaxValue(board.getSuccessor(i), false,
-					maxValue, numSuccessors, 0, 1, change);
-			if (value > maxValue) {
-				maxValue = value;
-				indices.clear();
-				indices.add(i);
-			} else if (Math.abs(value - maxValue) < THRESHOLD)
-				indices.add(i);
-		}
-
-		return indices.get((int) (Math.random() * indices.size()));
+	protected int search(CheckersBoard board, int timeBudget) {
+		engine.setDraw(2 * (maxMoves - moveCount + 1), DRAW_VALUE);
+		engine.search(board, maxSearchDepth, timeBudget);
+		return Math.max(0, engine.getBestIndex());
 	}
 }
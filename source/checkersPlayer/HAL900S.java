@@ -16,13 +16,7 @@ public class HAL900S extends HAL900 implements CheckersPlayerInterface {
 	public static final String VERSION = HAL900.VERSION;
 	
 	public HAL900S() {
-		reduceTimes = new int[] { 1000 };
-	}
-
-	@Override
-	protected void calcSearchDepth() {
-		searchDepth = MIN_SEARCH_DEPTH;
-		maxSearchDepth = searchDepth + 2;
+		maxSearchDepth = MIN_SEARCH_DEPTH;
 	}
 
 	@Override
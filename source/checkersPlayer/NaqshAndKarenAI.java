@@ -61,13 +61,13 @@ public class NaqshAndKarenAI implements CheckersPlayerInterface {
 				eval += helper(theBoard.getSuccessor(highest), eval, l,
 						theBoard);
 				theBoard = theBoard.getSuccessor(highest);
-				if (theBoard.invertCheckersBoard().getNumPlies() <= (l / 2))
+				if (theBoard.countMoves(CheckersBoard.PLAYER2) <= (l / 2))
 					return eval;
 				// System.out.println("IT's INVERTED ETC (highest)");
 			} else if ((l + 2) % 2 == 1) {
 				eval -= helper(theBoard.getSuccessor(lowest), eval, l, theBoard);
 				theBoard = theBoard.getSuccessor(lowest);
-				if (theBoard.invertCheckersBoard().getNumPlies() <= (l / 2))
+				if (theBoard.countMoves(CheckersBoard.PLAYER2) <= (l / 2))
 					return eval;
 				// System.out.println("IT's INVERTED ETC (lowest)");
 			}
@@ -0,0 +1,25 @@
+package checkersSearch;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * Evaluates the leaves of a {@link SearchEngine} search. The engine only
+ * evaluates quiet positions, in which the side to move has a move and no
+ * jump, so an evaluator does not have to look for won or lost positions or
+ * pending captures.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public interface Evaluator {
+
+	/**
+	 * Returns the value of the passed board for the side to move, higher
+	 * values being better for the side to move. The value has to be well
+	 * below {@link SearchEngine#WIN_SCORE}. The board must not be modified.
+	 * 
+	 * @param board
+	 *            - the board to evaluate
+	 * @return the value of the board for its side to move
+	 */
+	float evaluate(CheckersBoard board);
+}
@@ -0,0 +1,143 @@
+package checkersSearch;
+
+import java.util.Arrays;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * The default {@link MoveOrdering} of a {@link SearchEngine}. The moves of a
+ * node are searched in this order:
+ * <ol>
+ * <li>the best move passed by the engine, e.g. from the principal variation;
+ * <li>jumps that capture more pieces before jumps that capture fewer;
+ * <li>the two killer moves of the ply, the last simple moves that caused a
+ * cutoff at the same distance from the root;
+ * <li>the other simple moves, by their history score, which grows every time
+ * the move causes a cutoff anywhere in the tree, the more so the deeper the
+ * cutoff.
+ * </ol>
+ * Moves with equal scores keep the order of
+ * {@link CheckersBoard#getMoves(long[])}, so the search is deterministic. An
+ * ordering learns from the search it is used by, so it is not thread-safe:
+ * every searching thread needs an ordering of its own.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class HistoryMoveOrdering implements MoveOrdering {
+
+	protected static final int BEST_MOVE_SCORE = Integer.MAX_VALUE;
+	protected static final int JUMP_SCORE = 1 << 30;
+	protected static final int KILLER_SCORE = 1 << 29;
+	/**
+	 * The history scores are halved when one of them exceeds this, so they
+	 * stay below the killer scores and recent cutoffs count the most.
+	 */
+	protected static final int MAX_HISTORY = 1 << 20;
+
+	/**
+	 * The killer moves of each ply, indexed by [ply][slot].
+	 */
+	protected long[][] killers = new long[0][];
+	/**
+	 * The history scores of the simple moves, indexed by [side][from][to].
+	 */
+	protected final int[][][] history = new int[2][32][32];
+
+	private int[] scores = new int[CheckersBoard.MAX_MOVES];
+
+	@Override
+	public void clear() {
+		for (long[] plyKillers : killers)
+			Arrays.fill(plyKillers, SearchEngine.NO_MOVE);
+		for (int[][] sideHistory : history)
+			for (int[] fromHistory : sideHistory)
+				Arrays.fill(fromHistory, 0);
+	}
+
+	/**
+	 * Returns the killer moves of the passed ply, creating the killer moves
+	 * of the plies the search has not reached before.
+	 */
+	protected long[] getKillers(int ply) {
+		if (ply >= killers.length) {
+			int oldLength = killers.length;
+			killers = Arrays.copyOf(killers, Math.max(ply + 1, oldLength * 2));
+			for (int i = oldLength; i < killers.length; i++)
+				killers[i] = new long[2];
+		}
+		return killers[ply];
+	}
+
+	/**
+	 * Returns the score of the passed move, higher scores being searched
+	 * first.
+	 *
+	 * @param board
+	 *            - the board of the node
+	 * @param move
+	 *            - a move of the node
+	 * @param plyKillers
+	 *            - the killer moves of the ply of the node
+	 * @param bestMove
+	 *            - the move expected to be best
+	 * @return the score of the move
+	 */
+	protected int getScore(CheckersBoard board, long move, long[] plyKillers,
+			long bestMove) {
+		if (move == bestMove)
+			return BEST_MOVE_SCORE;
+		if (CheckersBoard.isJump(move))
+			return JUMP_SCORE
+					+ Integer.bitCount(CheckersBoard.getMoveCaptured(move));
+		if (move == plyKillers[0])
+			return KILLER_SCORE + 1;
+		if (move == plyKillers[1])
+			return KILLER_SCORE;
+		return history[board.getSideToMove()][CheckersBoard.getMoveFrom(move)][CheckersBoard
+				.getMoveTo(move)];
+	}
+
+	@Override
+	public void orderMoves(CheckersBoard board, long[] moves, int numMoves,
+			int ply, long bestMove) {
+		long[] plyKillers = getKillers(ply);
+		for (int i = 0; i < numMoves; i++)
+			scores[i] = getScore(board, moves[i], plyKillers, bestMove);
+
+		// An insertion sort is stable and fast for the few moves of a node
+		for (int i = 1; i < numMoves; i++) {
+			long move = moves[i];
+			int score = scores[i];
+			int j = i - 1;
+			for (; j >= 0 && scores[j] < score; j--) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = score;
+		}
+	}
+
+	@Override
+	public void updateCutoff(CheckersBoard board, long move, int ply, int depth) {
+		// Jumps are forced and already searched first
+		if (CheckersBoard.isJump(move))
+			return;
+
+		long[] plyKillers = getKillers(ply);
+		if (plyKillers[0] != move) {
+			plyKillers[1] = plyKillers[0];
+			plyKillers[0] = move;
+		}
+
+		int[] fromHistory = history[board.getSideToMove()][CheckersBoard
+				.getMoveFrom(move)];
+		int to = CheckersBoard.getMoveTo(move);
+		fromHistory[to] += Math.max(1, depth * depth);
+		if (fromHistory[to] > MAX_HISTORY)
+			for (int[][] sideHistory : history)
+				for (int[] fromScores : sideHistory)
+					for (int i = 0; i < fromScores.length; i++)
+						fromScores[i] /= 2;
+	}
+}
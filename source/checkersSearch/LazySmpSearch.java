@@ -0,0 +1,231 @@
+package checkersSearch;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * A {@link SearchEngine} that searches with several threads sharing a
+ * {@link TranspositionTable} (lazy SMP). The calling thread runs the
+ * iterative deepening of {@link #search(CheckersBoard, int, long)} as a
+ * single engine would, while every helper thread runs the same iterative
+ * deepening on the same root with an engine, arena and move ordering of its
+ * own. The threads do not otherwise communicate: the helpers fill the table
+ * with results that cut the searches of the other threads short. Every other
+ * helper searches each iteration after the first one ply deeper than the
+ * calling thread, so the threads reach the same positions at different
+ * depths and times, with orderings that have learned different things, and
+ * soon search different parts of the tree.
+ * <p>
+ * When the calling thread finishes, the helpers are stopped, and the best
+ * move is that of the thread that completed the deepest iteration,
+ * preferring the calling thread. The evaluator is shared by all the threads,
+ * so it has to be thread-safe. Searches to a fixed depth with
+ * {@link #search(CheckersBoard, int)} are run by the calling thread alone.
+ * The helpers and their threads are only created by the first search that
+ * uses them.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class LazySmpSearch extends SearchEngine {
+
+	/**
+	 * The size of the transposition table in megabytes, if none is set.
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 16;
+
+	/**
+	 * Makes the helper threads daemons, so a player does not keep the
+	 * program running.
+	 */
+	private static final ThreadFactory HELPER_FACTORY = new ThreadFactory() {
+		private final ThreadFactory factory = Executors.defaultThreadFactory();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = factory.newThread(runnable);
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	private int numThreads;
+	private SearchEngine[] helpers = new SearchEngine[0];
+	private ExecutorService executor;
+
+	/**
+	 * Creates a search with one thread per processor.
+	 *
+	 * @param evaluator
+	 *            - the thread-safe evaluator of the leaves of the search
+	 */
+	public LazySmpSearch(Evaluator evaluator) {
+		this(evaluator, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param evaluator
+	 *            - the thread-safe evaluator of the leaves of the search
+	 * @param numThreads
+	 *            - the number of threads to search with, including the
+	 *            calling thread
+	 */
+	public LazySmpSearch(Evaluator evaluator, int numThreads) {
+		super(evaluator);
+		setNumThreads(numThreads);
+	}
+
+	/**
+	 * Returns the number of threads the search runs on.
+	 *
+	 * @return the number of threads, including the calling thread
+	 */
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	/**
+	 * Clears the move ordering of the calling thread and of every helper.
+	 */
+	@Override
+	public void clearOrdering() {
+		super.clearOrdering();
+		for (SearchEngine helper : helpers)
+			helper.clearOrdering();
+	}
+
+	/**
+	 * Creates the helpers and their threads, if the number of threads has
+	 * changed since they were last created.
+	 */
+	private void createHelpers() {
+		if (helpers.length == numThreads - 1)
+			return;
+
+		if (executor != null)
+			executor.shutdown();
+		executor = Executors.newFixedThreadPool(numThreads - 1,
+				HELPER_FACTORY);
+		helpers = new SearchEngine[numThreads - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new SearchEngine(evaluator);
+			helpers[i].setTranspositionTable(table);
+		}
+	}
+
+	@Override
+	public float search(CheckersBoard board, int maxDepth, long timeLimit) {
+		if (numThreads == 1)
+			return super.search(board, maxDepth, timeLimit);
+		createHelpers();
+		if (table == null)
+			setTranspositionTable(new TranspositionTable(DEFAULT_TABLE_SIZE));
+
+		stopped = false;
+		table.newSearch();
+		long startTime = System.currentTimeMillis();
+		Future<?>[] futures = new Future<?>[helpers.length];
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i].stopped = false;
+			helpers[i].setDraw(drawPly, drawScore);
+			futures[i] = executor.submit(new HelperTask(helpers[i], board
+					.clone(), maxDepth, startTime, timeLimit, i % 2 == 0 ? 1
+					: 0));
+		}
+
+		deepen(board, maxDepth, startTime, timeLimit, 0);
+
+		for (SearchEngine helper : helpers)
+			helper.stop();
+		for (int i = 0; i < helpers.length; i++) {
+			try {
+				futures[i].get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				// A helper that failed has not found a better move
+				e.printStackTrace();
+				continue;
+			}
+
+			SearchEngine helper = helpers[i];
+			nodes += helper.nodes;
+			if (helper.completedDepth > completedDepth) {
+				completedDepth = helper.completedDepth;
+				bestMove = helper.bestMove;
+				score = helper.score;
+				previousPvLength = helper.previousPvLength;
+				if (previousPv.length < previousPvLength)
+					previousPv = new long[helper.previousPv.length];
+				System.arraycopy(helper.previousPv, 0, previousPv, 0,
+						previousPvLength);
+			}
+		}
+		return score;
+	}
+
+	/**
+	 * Sets the number of threads to search with. The helper threads are
+	 * created when the search first runs.
+	 *
+	 * @param numThreads
+	 *            - the number of threads, including the calling thread
+	 */
+	public void setNumThreads(int numThreads) {
+		if (numThreads < 1)
+			throw new IllegalArgumentException("Invalid number of threads: "
+					+ numThreads);
+		this.numThreads = numThreads;
+	}
+
+	@Override
+	public void setTranspositionTable(TranspositionTable table) {
+		super.setTranspositionTable(table);
+		for (SearchEngine helper : helpers)
+			helper.setTranspositionTable(table);
+	}
+
+	@Override
+	public void shutdown() {
+		if (executor != null)
+			executor.shutdown();
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		for (SearchEngine helper : helpers)
+			helper.stop();
+	}
+
+	/**
+	 * Runs the iterative deepening of a helper engine.
+	 */
+	private static class HelperTask implements Runnable {
+		private final SearchEngine helper;
+		private final CheckersBoard board;
+		private final int maxDepth;
+		private final long startTime, timeLimit;
+		private final int depthOffset;
+
+		HelperTask(SearchEngine helper, CheckersBoard board, int maxDepth,
+				long startTime, long timeLimit, int depthOffset) {
+			this.helper = helper;
+			this.board = board;
+			this.maxDepth = maxDepth;
+			this.startTime = startTime;
+			this.timeLimit = timeLimit;
+			this.depthOffset = depthOffset;
+		}
+
+		@Override
+		public void run() {
+			helper.deepen(board, maxDepth, startTime, timeLimit, depthOffset);
+		}
+	}
+}
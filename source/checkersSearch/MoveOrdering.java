@@ -0,0 +1,57 @@
+package checkersSearch;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * Orders the moves of the nodes of a {@link SearchEngine} search. Alpha-beta
+ * search cuts off the most when the best move is searched first, so the
+ * ordering decides how much of the tree the engine has to search. The engine
+ * reports the moves that caused cutoffs, so an ordering can learn from the
+ * search.
+ *
+ * @see HistoryMoveOrdering
+ * @version 1.00 - 18 October 2026
+ */
+public interface MoveOrdering {
+
+	/**
+	 * Forgets everything learned in earlier searches. It is called when a
+	 * new game starts.
+	 */
+	void clear();
+
+	/**
+	 * Sorts the passed moves into the order they are to be searched in.
+	 * 
+	 * @param board
+	 *            - the board of the node, which must not be modified
+	 * @param moves
+	 *            - the moves of the node, packed as by
+	 *            {@link CheckersBoard#createMove(int, int, int)}
+	 * @param numMoves
+	 *            - the number of moves
+	 * @param ply
+	 *            - the distance of the node from the root of the search
+	 * @param bestMove
+	 *            - the move expected to be best, e.g. from the principal
+	 *            variation of the previous search, or
+	 *            {@link SearchEngine#NO_MOVE}
+	 */
+	void orderMoves(CheckersBoard board, long[] moves, int numMoves, int ply,
+			long bestMove);
+
+	/**
+	 * Records that the passed move caused a cutoff, or was the best move of
+	 * a node.
+	 * 
+	 * @param board
+	 *            - the board of the node, before the move
+	 * @param move
+	 *            - the move that caused the cutoff
+	 * @param ply
+	 *            - the distance of the node from the root of the search
+	 * @param depth
+	 *            - the remaining depth of the node
+	 */
+	void updateCutoff(CheckersBoard board, long move, int ply, int depth);
+}
@@ -0,0 +1,621 @@
+package checkersSearch;
+
+import java.util.Arrays;
+
+import checkersMain.CheckersBoard;
+import checkersMain.MoveIterator;
+import checkersMain.SearchArena;
+
+/**
+ * A negamax search with alpha-beta pruning and principal variation search
+ * (PVS). The first move of every node is searched with the full window and
+ * the other moves with a null window that only proves they are no better,
+ * and a move is only searched again with the full window if it turns out to
+ * be better. With good {@link MoveOrdering} the first move is usually the
+ * best, so most of the tree is searched with null windows, which cut off the
+ * most.
+ * <p>
+ * The leaves are evaluated by an {@link Evaluator} from the point of view of
+ * the side to move. As jumps are forced, a leaf where the side to move can
+ * jump is not evaluated; the jumps are searched instead until a quiet
+ * position is reached, so the evaluator never sees a position in the middle
+ * of an exchange. A side that cannot move has lost, which is scored as
+ * {@link #WIN_SCORE} minus the distance from the root for the winner, so
+ * the engine prefers the quickest win and the slowest loss.
+ * <p>
+ * A search is either run to a fixed depth with
+ * {@link #search(CheckersBoard, int)}, or deepened one ply at a time until a
+ * time budget runs out with {@link #search(CheckersBoard, int, long)}. Each
+ * iteration of the iterative deepening searches the principal variation of
+ * the one before first, and the move ordering has learned from the earlier
+ * iterations, so the iterations before the last cost little. With a
+ * {@link TranspositionTable}, positions reached by different move orders are
+ * only searched once, and the best move of every position of the iteration
+ * before is searched first. That move is searched before the other moves of
+ * the node are generated, so a node it cuts off only generates the moves of
+ * one piece.
+ * <p>
+ * The search walks a single board with
+ * {@link CheckersBoard#makeMove(long)} and
+ * {@link CheckersBoard#unmakeMove(long, int)}, using the slots of a
+ * {@link SearchArena} for the moves of each ply, so it does not allocate.
+ * An engine is not thread-safe; it can be stopped from another thread with
+ * {@link #stop()}.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class SearchEngine {
+
+	/**
+	 * The score of a won position. Evaluations have to be well below it.
+	 */
+	public static final float WIN_SCORE = 100000f;
+
+	/**
+	 * The move that stands for no move. It is not a legal move, as its
+	 * starting and final index are the same.
+	 */
+	public static final long NO_MOVE = 0;
+
+	/**
+	 * The deepest an iterative deepening search goes, for positions where
+	 * every iteration ends in the same won, lost or drawn positions.
+	 */
+	public static final int MAX_DEPTH = 64;
+
+	/**
+	 * The greatest distance from the root at which a won or lost score is
+	 * told apart from an evaluation.
+	 */
+	protected static final int MAX_WIN_PLY = 10000;
+
+	/**
+	 * The number of nodes searched between checks of the time, minus one.
+	 */
+	protected static final int TIME_CHECK_MASK = 1023;
+
+	protected final Evaluator evaluator;
+	protected final MoveOrdering ordering;
+	protected final SearchArena arena;
+	protected TranspositionTable table;
+
+	/**
+	 * The principal variation found below each ply, indexed by [ply][i] for
+	 * i from ply up to {@link #pvLength}[ply].
+	 */
+	protected long[][] pv = new long[0][];
+	protected int[] pvLength = new int[0];
+
+	/**
+	 * The principal variation of the previous search, which is searched
+	 * first.
+	 */
+	protected long[] previousPv = new long[0];
+	protected int previousPvLength;
+	/**
+	 * Whether the node being searched is on the previous principal
+	 * variation.
+	 */
+	protected boolean followPv;
+
+	protected int drawPly = Integer.MAX_VALUE;
+	protected float drawScore;
+
+	protected long nodes;
+	protected volatile boolean stopped;
+	/**
+	 * The time at which the search is stopped, in milliseconds.
+	 */
+	protected long deadline = Long.MAX_VALUE;
+	protected int completedDepth;
+
+	protected final long[] rootMoves = new long[CheckersBoard.MAX_MOVES];
+	protected int numRootMoves;
+	protected long bestMove;
+	protected float score;
+
+	/**
+	 * Creates an engine with the default {@link HistoryMoveOrdering}.
+	 *
+	 * @param evaluator
+	 *            - the evaluator of the leaves of the search
+	 */
+	public SearchEngine(Evaluator evaluator) {
+		this(evaluator, new HistoryMoveOrdering());
+	}
+
+	/**
+	 * @param evaluator
+	 *            - the evaluator of the leaves of the search
+	 * @param ordering
+	 *            - the ordering of the moves of each node
+	 */
+	public SearchEngine(Evaluator evaluator, MoveOrdering ordering) {
+		this.evaluator = evaluator;
+		this.ordering = ordering;
+		this.arena = new SearchArena(32);
+	}
+
+	/**
+	 * Makes sure that the principal variation can be kept for the passed
+	 * ply.
+	 */
+	private void ensurePly(int ply) {
+		if (ply < pvLength.length)
+			return;
+		// The variations of the plies above are still being searched
+		int length = Math.max(ply + 1, pvLength.length * 2);
+		pv = Arrays.copyOf(pv, length);
+		for (int i = 0; i < length; i++)
+			pv[i] = pv[i] == null ? new long[length] : Arrays.copyOf(pv[i],
+					length);
+		pvLength = Arrays.copyOf(pvLength, length);
+	}
+
+	/**
+	 * Returns the best move found by the last search, packed as by
+	 * {@link CheckersBoard#createMove(int, int, int)}.
+	 *
+	 * @return the best move, or {@link #NO_MOVE} if the root has no moves
+	 */
+	public long getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Returns the index of the best move found by the last search, which is
+	 * the index of its ply and successor in the root board.
+	 *
+	 * @return the index of the best move, or -1 if the root has no moves
+	 */
+	public int getBestIndex() {
+		for (int i = 0; i < numRootMoves; i++)
+			if (rootMoves[i] == bestMove)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Returns the depth of the last iteration of the last search that was not
+	 * stopped.
+	 *
+	 * @return the depth searched completely, or 0 if not even the first
+	 *         iteration was
+	 */
+	public int getDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns the number of nodes searched by the last search.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Makes the move ordering of the engine forget everything it learned,
+	 * e.g. when a new game starts.
+	 */
+	public void clearOrdering() {
+		ordering.clear();
+	}
+
+	/**
+	 * Returns the move ordering of the engine.
+	 *
+	 * @return the move ordering
+	 */
+	public MoveOrdering getOrdering() {
+		return ordering;
+	}
+
+	/**
+	 * Returns the transposition table of the engine.
+	 *
+	 * @return the table, or null if the engine has none
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Returns the principal variation of the last search, the moves both
+	 * sides are expected to play from the root.
+	 *
+	 * @return a new array of the moves of the principal variation
+	 */
+	public long[] getPrincipalVariation() {
+		long[] variation = new long[previousPvLength];
+		System.arraycopy(previousPv, 0, variation, 0, previousPvLength);
+		return variation;
+	}
+
+	/**
+	 * Returns the score of the best move of the last search, from the point
+	 * of view of the side to move at the root.
+	 *
+	 * @return the score of the root
+	 */
+	public float getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns whether the last search was stopped before it finished.
+	 *
+	 * @return whether the search was stopped
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Searches the moves of the node at the passed ply of the search board.
+	 *
+	 * @param ply
+	 *            - the distance of the node from the root
+	 * @param depth
+	 *            - the remaining depth of the search, zero or less at the
+	 *            leaves
+	 * @param alpha
+	 *            - the score the side to move is already guaranteed
+	 * @param beta
+	 *            - the score the opponent is already guaranteed, negated
+	 * @return the score of the node from the point of view of its side to
+	 *         move; it is at most alpha if no move is better than alpha, and
+	 *         at least beta if a move cuts off
+	 */
+	protected float negamax(int ply, int depth, float alpha, float beta) {
+		ensurePly(ply + 1);
+		pvLength[ply] = ply;
+		boolean onPv = followPv;
+		followPv = false;
+		if ((++nodes & TIME_CHECK_MASK) == 0 && shouldStop())
+			stopped = true;
+
+		if (ply >= drawPly)
+			return (ply & 1) == 0 ? drawScore : -drawScore;
+
+		CheckersBoard board = arena.getBoard();
+		boolean capture = board.hasCapture();
+		if (depth <= 0 && !capture) {
+			if (board.countMoves() == 0)
+				return -WIN_SCORE + ply;
+			return evaluator.evaluate(board);
+		}
+
+		// Only the full-width nodes are kept in the table, and the root has
+		// to be searched for its best move
+		long entry = TranspositionTable.MISS;
+		if (table != null && depth > 0) {
+			entry = table.probe(board.getHashKey());
+			if (entry != TranspositionTable.MISS && ply > 0
+					&& TranspositionTable.getDepth(entry) >= depth) {
+				float entryScore = fromTable(TranspositionTable
+						.getScore(entry), ply);
+				switch (TranspositionTable.getBound(entry)) {
+				case TranspositionTable.EXACT:
+					return entryScore;
+				case TranspositionTable.LOWER_BOUND:
+					if (entryScore >= beta)
+						return entryScore;
+					break;
+				case TranspositionTable.UPPER_BOUND:
+					if (entryScore <= alpha)
+						return entryScore;
+					break;
+				}
+			}
+		}
+
+		// The move expected to be best is searched before the other moves are
+		// generated, so a node it cuts off generates only the moves of its
+		// piece
+		long[] moves = arena.getMoves(ply);
+		long pvMove = onPv && ply < previousPvLength ? previousPv[ply]
+				: NO_MOVE;
+		long hashMove = pvMove;
+		if (hashMove == NO_MOVE && entry != TranspositionTable.MISS) {
+			int from = TranspositionTable.getMoveFrom(entry);
+			if (from >= 0)
+				hashMove = TranspositionTable.getMove(entry, moves, board
+						.getPieceMoves(from, capture, moves, 0));
+		}
+
+		float originalAlpha = alpha;
+		long bestMove = NO_MOVE;
+		float bestScore = Float.NEGATIVE_INFINITY;
+		int numMoves = -1;
+		int next = 0;
+		for (int i = 0;; i++) {
+			long move;
+			if (i == 0 && hashMove != NO_MOVE)
+				move = hashMove;
+			else {
+				if (numMoves < 0)
+					numMoves = generateMoves(ply, board, hashMove);
+				if (next == numMoves)
+					break;
+				move = moves[next++];
+			}
+
+			arena.makeMove(ply, move);
+			followPv = move == pvMove;
+			float score;
+			if (i == 0)
+				score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+			else {
+				// A null window proves that the move is no better
+				score = -negamax(ply + 1, depth - 1, -Math.nextUp(alpha),
+						-alpha);
+				if (score > alpha && score < beta && !stopped)
+					score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+			}
+			arena.unmakeMove(ply, move);
+			if (stopped)
+				break;
+
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if (score >= beta) {
+						ordering.updateCutoff(board, move, ply, depth);
+						break;
+					}
+				}
+			}
+		}
+		if (bestMove == NO_MOVE && !stopped)
+			return -WIN_SCORE + ply;
+
+		if (table != null && depth > 0 && !stopped) {
+			int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+					: bestScore > originalAlpha ? TranspositionTable.EXACT
+							: TranspositionTable.UPPER_BOUND;
+			table.store(board.getHashKey(), toTable(bestScore, ply), depth,
+					bound, bestMove);
+		}
+		return bestScore;
+	}
+
+	/**
+	 * Writes the moves of the node at the passed ply, other than the passed
+	 * move already searched, into the move buffer of the ply in the order
+	 * they are to be searched in. The moves are pulled from the
+	 * {@link MoveIterator} of the ply, which only generates the simple moves
+	 * if no piece can jump.
+	 *
+	 * @return the number of moves written
+	 */
+	private int generateMoves(int ply, CheckersBoard board, long searchedMove) {
+		long[] moves = arena.getMoves(ply);
+		MoveIterator iterator = arena.getMoveIterator(ply).reset(board);
+		int numMoves = 0;
+		while (iterator.hasNext()) {
+			long move = iterator.next();
+			if (move != searchedMove)
+				moves[numMoves++] = move;
+		}
+		ordering.orderMoves(board, moves, numMoves, ply, NO_MOVE);
+		return numMoves;
+	}
+
+	/**
+	 * Converts the passed score read from the table to a score at the passed
+	 * ply. Won and lost scores are kept in the table as the distance from the
+	 * position, as the position can be reached at other plies.
+	 */
+	static float fromTable(float score, int ply) {
+		if (score > WIN_SCORE - MAX_WIN_PLY)
+			return score - ply;
+		if (score < -WIN_SCORE + MAX_WIN_PLY)
+			return score + ply;
+		return score;
+	}
+
+	/**
+	 * Converts the passed score at the passed ply to a score to keep in the
+	 * table.
+	 *
+	 * @see #fromTable(float, int)
+	 */
+	static float toTable(float score, int ply) {
+		if (score > WIN_SCORE - MAX_WIN_PLY)
+			return score + ply;
+		if (score < -WIN_SCORE + MAX_WIN_PLY)
+			return score - ply;
+		return score;
+	}
+
+	/**
+	 * Returns whether the search has to stop. It is checked every
+	 * {@link #TIME_CHECK_MASK} + 1 nodes.
+	 *
+	 * @return whether the time of the search has run out
+	 */
+	protected boolean shouldStop() {
+		return System.currentTimeMillis() >= deadline;
+	}
+
+	/**
+	 * Makes the passed move followed by the principal variation of the next
+	 * ply the principal variation of the passed ply.
+	 */
+	private void updatePv(int ply, long move) {
+		long[] plyPv = pv[ply];
+		plyPv[ply] = move;
+		int length = pvLength[ply + 1];
+		System.arraycopy(pv[ply + 1], ply + 1, plyPv, ply + 1, length - ply
+				- 1);
+		pvLength[ply] = Math.max(ply + 1, length);
+	}
+
+	/**
+	 * Searches the passed board to the passed depth and returns the score of
+	 * its best move. The best move, its index and the principal variation
+	 * are available afterwards. The passed board is not modified.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param depth
+	 *            - the depth to search to, jumps being searched beyond it
+	 * @return the score of the best move from the point of view of the side
+	 *         to move
+	 */
+	public float search(CheckersBoard board, int depth) {
+		stopped = false;
+		if (table != null)
+			table.newSearch();
+		startSearch(Long.MAX_VALUE);
+		searchDepth(board, depth);
+		if (!stopped)
+			completedDepth = depth;
+		return score;
+	}
+
+	/**
+	 * Searches the passed board to depth 1, 2, 3 and so on until the passed
+	 * depth is reached or the passed time runs out, and returns the score of
+	 * the best move of the deepest iteration. An iteration is not started if
+	 * half of the time is gone, as it would most likely not finish. The
+	 * iteration running when the time runs out is stopped; its best move is
+	 * only taken if it was searched completely and is better than the best
+	 * move of the iteration before, which is searched first. The first
+	 * iteration is always searched completely. The passed board is not
+	 * modified.
+	 *
+	 * @param board
+	 *            - the board to search
+	 * @param maxDepth
+	 *            - the deepest iteration, e.g. {@link #MAX_DEPTH}
+	 * @param timeLimit
+	 *            - the time the search may take, in milliseconds
+	 * @return the score of the best move from the point of view of the side
+	 *         to move
+	 */
+	public float search(CheckersBoard board, int maxDepth, long timeLimit) {
+		stopped = false;
+		if (table != null)
+			table.newSearch();
+		return deepen(board, maxDepth, System.currentTimeMillis(), timeLimit,
+				0);
+	}
+
+	/**
+	 * Runs the iterative deepening of
+	 * {@link #search(CheckersBoard, int, long)}, started at the passed time.
+	 * Unlike it, it does not clear {@link #stopped}, so an engine stopped
+	 * before the search starts does not search, and it does not age the
+	 * transposition table, so it can be run by the threads of a parallel
+	 * search. The iterations after the first are searched the passed number
+	 * of plies deeper, so the threads of a parallel search can be set apart.
+	 */
+	protected float deepen(CheckersBoard board, int maxDepth, long startTime,
+			long timeLimit, int depthOffset) {
+		startSearch(Long.MAX_VALUE);
+		searchDepth(board, 1);
+		if (!stopped)
+			completedDepth = 1;
+		deadline = startTime + timeLimit;
+
+		for (int depth = 2 + depthOffset; depth <= maxDepth && !stopped;
+				depth++) {
+			long elapsedTime = System.currentTimeMillis() - startTime;
+			if (elapsedTime * 2 > timeLimit || depth > drawPly
+					|| Math.abs(score) > WIN_SCORE - MAX_DEPTH)
+				break;
+
+			searchDepth(board, depth);
+			if (!stopped)
+				completedDepth = depth;
+		}
+		return score;
+	}
+
+	/**
+	 * Clears the results of the last search for a new search that stops at
+	 * the passed time.
+	 */
+	private void startSearch(long deadline) {
+		this.deadline = deadline;
+		previousPvLength = 0;
+		completedDepth = 0;
+		nodes = 0;
+	}
+
+	/**
+	 * Searches the passed board to the passed depth, searching the principal
+	 * variation of the previous search first. If the search is stopped, the
+	 * best move is the best of the moves searched completely. As the best
+	 * move of the previous search is searched first, no move is searched
+	 * completely only if it was not, so the previous best move is kept; if
+	 * there is none, the first move is taken.
+	 */
+	protected float searchDepth(CheckersBoard board, int depth) {
+		numRootMoves = arena.setRoot(board).getMoves(rootMoves);
+		followPv = true;
+
+		float rootScore = negamax(0, depth, Float.NEGATIVE_INFINITY,
+				Float.POSITIVE_INFINITY);
+		if (pvLength[0] > 0) {
+			previousPvLength = pvLength[0];
+			if (previousPv.length < previousPvLength)
+				previousPv = new long[pv[0].length];
+			System.arraycopy(pv[0], 0, previousPv, 0, previousPvLength);
+			bestMove = previousPv[0];
+			score = rootScore;
+		} else if (previousPvLength == 0) {
+			bestMove = numRootMoves > 0 ? rootMoves[0] : NO_MOVE;
+			score = rootScore;
+		}
+		return score;
+	}
+
+	/**
+	 * Sets the distance from the root at which the game is drawn, e.g.
+	 * because the move limit of the game is reached.
+	 *
+	 * @param drawPly
+	 *            - the distance from the root of the drawn positions, or
+	 *            {@link Integer#MAX_VALUE} if there are none
+	 * @param drawScore
+	 *            - the score of a draw from the point of view of the side
+	 *            to move at the root; a negative score makes the engine avoid
+	 *            draws
+	 */
+	public void setDraw(int drawPly, float drawScore) {
+		this.drawPly = drawPly;
+		this.drawScore = drawScore;
+	}
+
+	/**
+	 * Sets the transposition table of the engine. The table can be shared by
+	 * several engines.
+	 *
+	 * @param table
+	 *            - the table, or null for a search without one
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Releases the threads of the search, if it has any. The engine must not
+	 * be used afterwards.
+	 */
+	public void shutdown() {
+	}
+
+	/**
+	 * Stops the search being run. It can be called from any thread.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+}
@@ -0,0 +1,260 @@
+package checkersSearch;
+
+import java.util.Arrays;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * A fixed-size table of search results keyed by
+ * {@link CheckersBoard#getHashKey() hash keys}, so a position reached by
+ * different move orders is only searched once, and the best move found for a
+ * position in one iteration of a search is searched first in the next.
+ * <p>
+ * Each entry is packed into two longs of a single long array: the data, and
+ * the key XORed with the data. An entry is only returned if the two XOR back
+ * to the key looked up, so an entry torn by two threads writing it at once,
+ * or written halfway when it is read, is simply missed. The table can
+ * therefore be shared by the threads of a parallel search without locks.
+ * <p>
+ * The entries are kept in buckets of two. A new result replaces the entry of
+ * its own position if there is one, unless that entry was stored by the same
+ * search to a greater depth and the new score is not exact; a new result
+ * without a best move keeps the best move of the entry it replaces.
+ * Otherwise it replaces the entry of the bucket left by an older search or,
+ * failing that, the one searched less deeply, so the deep results that save
+ * the most work stay in the table.
+ * <p>
+ * The data of an entry holds, from the lowest bit:
+ * <ul>
+ * <li>32 bits - the score, as by {@link Float#floatToIntBits(float)}
+ * <li>5 bits - the starting index of the best move
+ * <li>5 bits - the final index of the best move
+ * <li>8 bits - the depth searched
+ * <li>2 bits - the bound type, {@link #EXACT}, {@link #LOWER_BOUND} or
+ * {@link #UPPER_BOUND}
+ * <li>6 bits - the age, the number of the search that stored the entry
+ * </ul>
+ * The captured pieces of the best move are not kept, so a move is matched
+ * by its starting and final index only.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class TranspositionTable {
+
+	/**
+	 * The bound type of a score that is the exact value of the position.
+	 */
+	public static final int EXACT = 1;
+	/**
+	 * The bound type of a score that the value of the position is at least,
+	 * as a move caused a cutoff.
+	 */
+	public static final int LOWER_BOUND = 2;
+	/**
+	 * The bound type of a score that the value of the position is at most,
+	 * as no move was better than alpha.
+	 */
+	public static final int UPPER_BOUND = 3;
+
+	/**
+	 * The data returned for a position that is not in the table. No entry has
+	 * this data, as every entry has a bound type.
+	 */
+	public static final long MISS = 0;
+
+	private static final int MOVE_SHIFT = 32;
+	private static final long MOVE_MASK = 0x3FFL << MOVE_SHIFT;
+	private static final int DEPTH_SHIFT = 42;
+	private static final int BOUND_SHIFT = 50;
+	private static final int AGE_SHIFT = 52;
+	private static final int MAX_DEPTH = 0xFF;
+	private static final int AGE_MASK = 0x3F;
+
+	/**
+	 * The number of longs in a bucket, two per entry.
+	 */
+	private static final int BUCKET_SIZE = 4;
+
+	private final long[] table;
+	private final int bucketMask;
+	private volatile int age;
+
+	/**
+	 * @param sizeInMB
+	 *            - the size of the table in megabytes; it is rounded down to
+	 *            a power of two
+	 */
+	public TranspositionTable(int sizeInMB) {
+		if (sizeInMB < 1 || sizeInMB > 8192)
+			throw new IllegalArgumentException("Invalid size: " + sizeInMB
+					+ " MB");
+		long numBuckets = Long.highestOneBit((long) sizeInMB * 1024 * 1024
+				/ (8 * BUCKET_SIZE));
+		if (numBuckets * BUCKET_SIZE > Integer.MAX_VALUE - 8)
+			numBuckets /= 2;
+		table = new long[(int) numBuckets * BUCKET_SIZE];
+		bucketMask = (int) numBuckets - 1;
+	}
+
+	/**
+	 * Returns the bound type of the passed entry data.
+	 *
+	 * @param data
+	 *            - the data of an entry
+	 * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 */
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT) & 3;
+	}
+
+	/**
+	 * Returns the depth searched of the passed entry data.
+	 *
+	 * @param data
+	 *            - the data of an entry
+	 * @return the depth
+	 */
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+	}
+
+	/**
+	 * Returns the starting index of the best move of the passed entry data,
+	 * so a search can generate the moves of that piece alone to find it.
+	 *
+	 * @param data
+	 *            - the data of an entry
+	 * @return the starting index of the best move, or -1 if the entry has
+	 *         none
+	 */
+	public static int getMoveFrom(long data) {
+		int from = (int) (data >>> MOVE_SHIFT) & 0x1F;
+		int to = (int) (data >>> MOVE_SHIFT + 5) & 0x1F;
+		return from == to ? -1 : from;
+	}
+
+	/**
+	 * Returns the move of the passed moves that is the best move of the
+	 * passed entry data.
+	 *
+	 * @param data
+	 *            - the data of an entry
+	 * @param moves
+	 *            - the moves of the position of the entry
+	 * @param numMoves
+	 *            - the number of moves
+	 * @return the best move, or {@link SearchEngine#NO_MOVE} if the entry
+	 *         has none or it is not among the moves
+	 */
+	public static long getMove(long data, long[] moves, int numMoves) {
+		int from = (int) (data >>> MOVE_SHIFT) & 0x1F;
+		int to = (int) (data >>> MOVE_SHIFT + 5) & 0x1F;
+		if (from == to)
+			return SearchEngine.NO_MOVE;
+		for (int i = 0; i < numMoves; i++)
+			if (CheckersBoard.getMoveFrom(moves[i]) == from
+					&& CheckersBoard.getMoveTo(moves[i]) == to)
+				return moves[i];
+		return SearchEngine.NO_MOVE;
+	}
+
+	/**
+	 * Returns the score of the passed entry data.
+	 *
+	 * @param data
+	 *            - the data of an entry
+	 * @return the score
+	 */
+	public static float getScore(long data) {
+		return Float.intBitsToFloat((int) data);
+	}
+
+	/**
+	 * Removes every entry from the table.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+	}
+
+	/**
+	 * Ages the entries in the table, so that they are replaced before the
+	 * entries of the new search. It is called when a new search starts.
+	 */
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	/**
+	 * Returns the data of the entry of the passed position.
+	 *
+	 * @param key
+	 *            - the hash key of the position
+	 * @return the data of the entry, or {@link #MISS} if the position is not
+	 *         in the table
+	 */
+	public long probe(long key) {
+		int index = ((int) key & bucketMask) * BUCKET_SIZE;
+		for (int i = index; i < index + BUCKET_SIZE; i += 2) {
+			long data = table[i + 1];
+			if ((table[i] ^ data) == key && data != MISS)
+				return data;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of the search of a position.
+	 *
+	 * @param key
+	 *            - the hash key of the position
+	 * @param score
+	 *            - the score of the position
+	 * @param depth
+	 *            - the depth the position was searched to
+	 * @param bound
+	 *            - {@link #EXACT}, {@link #LOWER_BOUND} or
+	 *            {@link #UPPER_BOUND}
+	 * @param move
+	 *            - the best move of the position, or
+	 *            {@link SearchEngine#NO_MOVE}
+	 */
+	public void store(long key, float score, int depth, int bound, long move) {
+		int age = this.age;
+		depth = Math.min(depth, MAX_DEPTH);
+		long data = Float.floatToRawIntBits(score) & 0xFFFFFFFFL
+				| (long) CheckersBoard.getMoveFrom(move) << MOVE_SHIFT
+				| (long) CheckersBoard.getMoveTo(move) << MOVE_SHIFT + 5
+				| (long) depth << DEPTH_SHIFT | (long) bound << BOUND_SHIFT
+				| (long) age << AGE_SHIFT;
+
+		int index = ((int) key & bucketMask) * BUCKET_SIZE;
+		int victim = index;
+		int victimPriority = Integer.MAX_VALUE;
+		for (int i = index; i < index + BUCKET_SIZE; i += 2) {
+			long oldData = table[i + 1];
+			if ((table[i] ^ oldData) == key && oldData != MISS) {
+				// A deeper bound of this search is worth more than a shallow
+				// one
+				if (depth < getDepth(oldData) && bound != EXACT
+						&& (int) (oldData >>> AGE_SHIFT) == age)
+					return;
+				if (move == SearchEngine.NO_MOVE)
+					data |= oldData & MOVE_MASK;
+				victim = i;
+				break;
+			}
+
+			// Entries of older searches go first, then shallower ones
+			int priority = oldData == MISS ? -2
+					: (int) (oldData >>> AGE_SHIFT) != age ? -1
+							: getDepth(oldData);
+			if (priority < victimPriority) {
+				victim = i;
+				victimPriority = priority;
+			}
+		}
+
+		table[victim] = key ^ data;
+		table[victim + 1] = data;
+	}
+}
@@ -0,0 +1,431 @@
+package checkersSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import checkersMain.CheckersBoard;
+
+/**
+ * A {@link SearchEngine} that splits the tree between threads with the
+ * Young Brothers Wait Concept (YBWC). The nodes near the root are
+ * {@link ForkJoinPool} tasks: a node searches its first move itself, and
+ * only once that has not caused a cutoff are the other moves, its young
+ * brothers, forked as tasks that idle threads steal. The first move is
+ * usually the best, so the brothers are searched with the bound it set,
+ * and little work is wasted on nodes that a sequential search would have
+ * cut off.
+ * <p>
+ * A brother that causes a cutoff cancels the brothers still searching, and
+ * everything below them, as a task is aborted whenever one of its ancestors
+ * has been cut off. Nodes other than the root with less than
+ * {@link #MIN_SPLIT_DEPTH} remaining depth are not split; they are searched
+ * sequentially by an engine of the thread's own, which checks every
+ * {@link #TIME_CHECK_MASK} + 1 nodes whether its task was aborted.
+ * <p>
+ * Unlike {@link LazySmpSearch}, the threads do not search the same nodes, so
+ * it also gains on short searches where there is little to share through the
+ * {@link TranspositionTable}. Both fixed-depth and iteratively deepened
+ * searches are split. The principal variation only holds the best move of
+ * the root. The evaluator is shared by all the threads, so it has to be
+ * thread-safe.
+ *
+ * @version 1.00 - 18 October 2026
+ */
+public class YbwcSearch extends SearchEngine {
+
+	/**
+	 * The least remaining depth of a node whose moves are split into tasks.
+	 * Shallower nodes take too little time to be worth a task.
+	 */
+	public static final int MIN_SPLIT_DEPTH = 4;
+
+	/**
+	 * A node of the tree that is split into tasks. Its result is only valid
+	 * if the node was not aborted.
+	 */
+	protected static class SplitNode extends RecursiveTask<Float> {
+		private static final long serialVersionUID = 1L;
+
+		protected final YbwcSearch search;
+		protected final SplitNode parent;
+		protected final CheckersBoard board;
+		protected final long move;
+		protected final int ply, depth;
+
+		private volatile float alpha;
+		private float beta;
+		private float bestScore = Float.NEGATIVE_INFINITY;
+		private long bestMove = NO_MOVE;
+		/**
+		 * Whether a move of this node caused a cutoff, which aborts the moves
+		 * still being searched.
+		 */
+		private volatile boolean cutoff;
+
+		/**
+		 * @param search
+		 *            - the search the node belongs to
+		 * @param parent
+		 *            - the parent node, or null for the root
+		 * @param board
+		 *            - the board of the node, owned by this task
+		 * @param move
+		 *            - the move of the parent that led to the node
+		 * @param ply
+		 *            - the distance of the node from the root
+		 * @param depth
+		 *            - the remaining depth of the node
+		 */
+		public SplitNode(YbwcSearch search, SplitNode parent,
+				CheckersBoard board, long move, int ply, int depth) {
+			this.search = search;
+			this.parent = parent;
+			this.board = board;
+			this.move = move;
+			this.ply = ply;
+			this.depth = depth;
+		}
+
+		/**
+		 * Returns a task for the node after the passed move.
+		 */
+		private SplitNode createChild(long childMove) {
+			CheckersBoard child = board.clone();
+			child.makeMove(childMove);
+			return new SplitNode(search, this, child, childMove, ply + 1,
+					depth - 1);
+		}
+
+		@Override
+		protected Float compute() {
+			if (parent == null) {
+				alpha = Float.NEGATIVE_INFINITY;
+				beta = Float.POSITIVE_INFINITY;
+			} else {
+				// The bound of the parent may have been raised by a brother
+				alpha = -parent.beta;
+				beta = -parent.alpha;
+			}
+			float score = search(alpha, beta);
+			if (parent != null && !isAborted())
+				parent.report(move, -score);
+			return score;
+		}
+
+		/**
+		 * Returns whether this node has to stop, as the search was stopped or
+		 * one of its ancestors was cut off.
+		 *
+		 * @return whether the node was aborted
+		 */
+		public boolean isAborted() {
+			for (SplitNode node = parent; node != null; node = node.parent)
+				if (node.cutoff)
+					return true;
+			return search.stopped;
+		}
+
+		/**
+		 * Records the score of a move of this node, once it has been searched
+		 * completely.
+		 */
+		private synchronized void report(long childMove, float score) {
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = childMove;
+				if (score > alpha) {
+					alpha = score;
+					if (score >= beta)
+						cutoff = true;
+				}
+			}
+		}
+
+		/**
+		 * Searches the node like
+		 * {@link SearchEngine#negamax(int, int, float, float)}.
+		 */
+		private float search(float alpha, float beta) {
+			if (isAborted())
+				return 0;
+			Worker worker = search.getWorker();
+			// The root is always split, as its moves are reported to it
+			if (depth < MIN_SPLIT_DEPTH && parent != null)
+				return worker.searchNode(this, board, ply, depth, alpha, beta);
+
+			search.splitNodes.increment();
+			if (ply >= search.drawPly)
+				return (ply & 1) == 0 ? search.drawScore : -search.drawScore;
+
+			TranspositionTable table = search.table;
+			long entry = TranspositionTable.MISS;
+			if (table != null) {
+				entry = table.probe(board.getHashKey());
+				if (entry != TranspositionTable.MISS && ply > 0
+						&& TranspositionTable.getDepth(entry) >= depth) {
+					float entryScore = fromTable(TranspositionTable
+							.getScore(entry), ply);
+					switch (TranspositionTable.getBound(entry)) {
+					case TranspositionTable.EXACT:
+						return entryScore;
+					case TranspositionTable.LOWER_BOUND:
+						if (entryScore >= beta)
+							return entryScore;
+						break;
+					case TranspositionTable.UPPER_BOUND:
+						if (entryScore <= alpha)
+							return entryScore;
+						break;
+					}
+				}
+			}
+
+			// The moves are read after the eldest brother, while other tasks
+			// may have run on this thread, so they are not kept in its arena
+			long[] moves = new long[CheckersBoard.MAX_MOVES];
+			int numMoves = board.hasCapture() ? board.getCaptures(moves)
+					: board.getMoves(moves);
+			if (numMoves == 0)
+				return -WIN_SCORE + ply;
+
+			long firstMove = NO_MOVE;
+			if (parent == null && search.previousPvLength > 0)
+				firstMove = search.previousPv[0];
+			else if (entry != TranspositionTable.MISS)
+				firstMove = TranspositionTable.getMove(entry, moves, numMoves);
+			worker.getOrdering().orderMoves(board, moves, numMoves, ply,
+					firstMove);
+
+			// The eldest brother is searched first, to set the bound of the
+			// young brothers
+			createChild(moves[0]).compute();
+			if (!cutoff && numMoves > 1 && !isAborted()) {
+				SplitNode[] brothers = new SplitNode[numMoves - 1];
+				for (int i = 1; i < numMoves; i++)
+					brothers[i - 1] = createChild(moves[i]);
+				invokeAll(brothers);
+			}
+			if (isAborted())
+				return 0;
+
+			if (cutoff)
+				worker.getOrdering().updateCutoff(board, bestMove, ply, depth);
+			if (table != null) {
+				int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+						: bestScore > alpha ? TranspositionTable.EXACT
+								: TranspositionTable.UPPER_BOUND;
+				table.store(board.getHashKey(), toTable(bestScore, ply),
+						depth, bound, bestMove);
+			}
+			return bestScore;
+		}
+	}
+
+	/**
+	 * The engine that searches the nodes that are not split, one per thread.
+	 */
+	protected static class Worker extends SearchEngine {
+		private final YbwcSearch search;
+		private SplitNode node;
+
+		public Worker(YbwcSearch search) {
+			super(search.evaluator);
+			this.search = search;
+		}
+
+		/**
+		 * Searches the passed node sequentially.
+		 *
+		 * @param node
+		 *            - the node, which is aborted if the search has to stop
+		 * @param board
+		 *            - the board of the node
+		 * @param ply
+		 *            - the distance of the node from the root
+		 * @param depth
+		 *            - the remaining depth of the node
+		 * @param alpha
+		 *            - the score the side to move is already guaranteed
+		 * @param beta
+		 *            - the score the opponent is already guaranteed, negated
+		 * @return the score of the node, which is only valid if the node was
+		 *         not aborted
+		 */
+		public float searchNode(SplitNode node, CheckersBoard board, int ply,
+				int depth, float alpha, float beta) {
+			this.node = node;
+			stopped = false;
+			deadline = search.deadline;
+			drawPly = search.drawPly;
+			drawScore = search.drawScore;
+			table = search.table;
+			previousPvLength = 0;
+			followPv = false;
+
+			arena.setRoot(board);
+			long oldNodes = nodes;
+			float score = negamax(ply, depth, alpha, beta);
+			search.splitNodes.add(nodes - oldNodes);
+			return score;
+		}
+
+		@Override
+		protected boolean shouldStop() {
+			if (super.shouldStop())
+				search.stop();
+			return node.isAborted();
+		}
+	}
+
+	/**
+	 * A thread of the pool, with the engine it searches with.
+	 */
+	protected static class WorkerThread extends ForkJoinWorkerThread {
+		private final YbwcSearch search;
+		private final Worker worker;
+
+		/**
+		 * @param pool
+		 *            - the pool of the search
+		 * @param search
+		 *            - the search the thread belongs to
+		 */
+		protected WorkerThread(ForkJoinPool pool, YbwcSearch search) {
+			super(pool);
+			this.search = search;
+			worker = new Worker(search);
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			synchronized (search.workers) {
+				search.workers.add(worker);
+			}
+		}
+
+		@Override
+		protected void onTermination(Throwable exception) {
+			synchronized (search.workers) {
+				search.workers.remove(worker);
+			}
+			super.onTermination(exception);
+		}
+	}
+
+	private final ForkJoinPool pool;
+	/**
+	 * The engines of the threads of the pool that are running.
+	 */
+	private final List<Worker> workers = new ArrayList<Worker>();
+	/**
+	 * The number of nodes searched by all the threads.
+	 */
+	private final LongAdder splitNodes = new LongAdder();
+
+	/**
+	 * Creates a search with one thread per processor.
+	 *
+	 * @param evaluator
+	 *            - the thread-safe evaluator of the leaves of the search
+	 */
+	public YbwcSearch(Evaluator evaluator) {
+		this(evaluator, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param evaluator
+	 *            - the thread-safe evaluator of the leaves of the search
+	 * @param numThreads
+	 *            - the number of threads to search with
+	 */
+	public YbwcSearch(Evaluator evaluator, int numThreads) {
+		super(evaluator);
+		pool = new ForkJoinPool(numThreads, new ForkJoinWorkerThreadFactory() {
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				return new WorkerThread(pool, YbwcSearch.this);
+			}
+		}, null, false);
+	}
+
+	/**
+	 * Clears the move orderings of the engines of every thread.
+	 */
+	@Override
+	public void clearOrdering() {
+		super.clearOrdering();
+		synchronized (workers) {
+			for (Worker worker : workers)
+				worker.clearOrdering();
+		}
+	}
+
+	@Override
+	public long getNodes() {
+		return splitNodes.sum();
+	}
+
+	/**
+	 * Returns the number of threads the search runs on.
+	 *
+	 * @return the number of threads
+	 */
+	public int getNumThreads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Returns the engine of the current thread, which is a thread of the
+	 * pool, as the tasks only run there.
+	 */
+	protected Worker getWorker() {
+		return ((WorkerThread) Thread.currentThread()).worker;
+	}
+
+	@Override
+	public float search(CheckersBoard board, int depth) {
+		splitNodes.reset();
+		return super.search(board, depth);
+	}
+
+	@Override
+	public float search(CheckersBoard board, int maxDepth, long timeLimit) {
+		splitNodes.reset();
+		return super.search(board, maxDepth, timeLimit);
+	}
+
+	/**
+	 * Searches the passed board to the passed depth with the pool. If the
+	 * search is stopped, the best move is the best of the moves searched
+	 * completely, as in {@link SearchEngine}.
+	 */
+	@Override
+	protected float searchDepth(CheckersBoard board, int depth) {
+		numRootMoves = arena.setRoot(board).getMoves(rootMoves);
+		SplitNode root = new SplitNode(this, null, board.clone(), NO_MOVE, 0,
+				depth);
+		float rootScore = pool.invoke(root);
+
+		if (root.bestMove != NO_MOVE) {
+			previousPv = new long[] { root.bestMove };
+			previousPvLength = 1;
+			bestMove = root.bestMove;
+			score = stopped ? root.bestScore : rootScore;
+		} else if (previousPvLength == 0) {
+			bestMove = numRootMoves > 0 ? rootMoves[0] : NO_MOVE;
+			score = rootScore;
+		}
+		return score;
+	}
+
+	@Override
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
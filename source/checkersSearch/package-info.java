@@ -0,0 +1,10 @@
+/**
+ * Provides a search engine shared by the
+ * {@link checkersMain.CheckersPlayerInterface} implementations, with
+ * pluggable evaluation and move ordering.
+ *
+ * @since 6.0
+ * @see checkersMain
+ * @see checkersPlayer
+ */
+package checkersSearch;